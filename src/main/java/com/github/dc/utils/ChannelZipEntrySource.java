@@ -0,0 +1,223 @@
+package com.github.dc.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+
+/**
+ * <p>
+ *     基于可随机读取通道的zip访问，供{@link org.apache.poi.openxml4j.opc.OPCPackage#open(ZipEntrySource)}打开工作簿：
+ *     通过中央目录定位每个zip条目，只有真正读取的条目才解压，不需要先写临时文件。
+ *     内存中的数据（byte[]、ByteBuffer）直接读取，本地文件内存映射后读取。
+ *     与POI打开文件时一样按{@link ZipSecureFile}的配置检查压缩比和条目大小，防止zip炸弹
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 18:10
+ */
+class ChannelZipEntrySource implements ZipEntrySource {
+
+    private final ZipFile zipFile;
+    private boolean closed = false;
+
+    ChannelZipEntrySource(SeekableByteChannel channel) throws IOException {
+        this.zipFile = new ZipFile(channel);
+    }
+
+    /**
+     * 读取内存中的zip数据，不复制
+     * @param buffer zip数据，从position到limit，读取不改变其position
+     */
+    static ChannelZipEntrySource of(ByteBuffer buffer) throws IOException {
+        return new ChannelZipEntrySource(new ByteBufferChannel(buffer.slice()));
+    }
+
+    /**
+     * 内存映射读取本地zip文件；超过2GB无法整体映射时直接通过FileChannel读取
+     * @param path 文件路径
+     */
+    static ChannelZipEntrySource of(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            return new ChannelZipEntrySource(channel);
+        }
+        MappedByteBuffer mapped;
+        try {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            // 映射建立后与通道无关，关闭通道不影响读取
+            channel.close();
+        }
+        return new ChannelZipEntrySource(new ByteBufferChannel(mapped));
+    }
+
+    @Override
+    public Enumeration<? extends ZipArchiveEntry> getEntries() {
+        return this.zipFile.getEntries();
+    }
+
+    @Override
+    public ZipArchiveEntry getEntry(String path) {
+        return this.zipFile.getEntry(path);
+    }
+
+    @Override
+    public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+        return new ThresholdInputStream(this.zipFile.getInputStream(entry), entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.zipFile.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * 解压时检查条目大小和压缩比（压缩大小取自中央目录，读取的压缩数据不会超过该值），超出限制时抛出IOException
+     */
+    private static class ThresholdInputStream extends FilterInputStream {
+        /**
+         * 解压不超过该字节数时不检查压缩比，与POI一致
+         */
+        private static final long GRACE_ENTRY_SIZE = 100 * 1024;
+
+        private final ZipArchiveEntry entry;
+        private long uncompressed = 0;
+
+        ThresholdInputStream(InputStream in, ZipArchiveEntry entry) {
+            super(in);
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.check(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.check(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.check(skipped);
+            return skipped;
+        }
+
+        private void check(long n) throws IOException {
+            this.uncompressed += n;
+            if (this.uncompressed > ZipSecureFile.getMaxEntrySize()) {
+                throw new IOException("zip条目【" + this.entry.getName() + "】解压后超过" + ZipSecureFile.getMaxEntrySize()
+                        + "字节，可能是zip炸弹，可通过ZipSecureFile.setMaxEntrySize调整限制");
+            }
+            long compressed = this.entry.getCompressedSize();
+            if (this.uncompressed > GRACE_ENTRY_SIZE && compressed >= 0
+                    && (double) compressed / this.uncompressed < ZipSecureFile.getMinInflateRatio()) {
+                throw new IOException("zip条目【" + this.entry.getName() + "】压缩比低于" + ZipSecureFile.getMinInflateRatio()
+                        + "，可能是zip炸弹，可通过ZipSecureFile.setMinInflateRatio调整限制");
+            }
+        }
+    }
+
+    /**
+     * 只读的ByteBuffer通道
+     */
+    private static class ByteBufferChannel implements SeekableByteChannel {
+        private final ByteBuffer buffer;
+        // 可能由关闭拉取式读取的线程关闭
+        private volatile boolean open = true;
+
+        ByteBufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            this.ensureOpen();
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), this.buffer.remaining());
+            ByteBuffer src = this.buffer.duplicate();
+            src.limit(src.position() + n);
+            dst.put(src);
+            this.buffer.position(this.buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            this.ensureOpen();
+            return this.buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            this.ensureOpen();
+            // 超出末尾时定位到末尾，之后读取返回-1
+            this.buffer.position((int) Math.min(Math.max(newPosition, 0), this.buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            this.ensureOpen();
+            return this.buffer.limit();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public void close() {
+            this.open = false;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
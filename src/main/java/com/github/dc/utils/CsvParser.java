@@ -0,0 +1,584 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.Three;
+import com.github.dc.utils.pojo.ThreeConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ *     CSV/TSV 解析工具，与{@link SAXExcelParser}使用相同的行回调和起始行规则：
+ *     第几个sheet页固定为1，行号为记录序号（从1开始，引号内换行不算新行），空行交付空List，只交付起始行之后的行。
+ *     支持双引号包裹的字段（字段内的""为一个双引号，可包含分隔符和换行）、BOM识别，
+ *     无BOM时检测是否为UTF-8，不是时按GBK读取。
+ *     文件通过内存映射读取；开启并行时由一个线程按字节扫描找出按记录对齐的分块边界（识别引号，不会从引号内的换行切开），
+ *     每找到一个分块立即交给其他线程解析，扫描与解析同时进行，调用线程按分块顺序交付，行号与顺序解析一致
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 19:50
+ */
+@Slf4j
+public class CsvParser {
+    /**
+     * 要读取的文件
+     */
+    private File file;
+    /**
+     * 字符集，为null时自动检测
+     */
+    private Charset charset;
+    /**
+     * 字段分隔符
+     */
+    private byte delimiter = ',';
+    /**
+     * 文件有效区域的起始行号，可设置数据行，跳过标题行读取。默认标题行在第一行
+     */
+    private int beginRowNum = 1;
+    /**
+     * 并行解析的线程数，小于等于1时顺序解析（默认）
+     */
+    private int threads = 1;
+    /**
+     * 分块大小（字节）
+     */
+    private int chunkSize = 32 * 1024 * 1024;
+    /**
+     * 并行解析时每个分块最多缓冲的行数，缓冲满后该分块的解析线程阻塞等待
+     */
+    private int chunkBufferRows = 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    /**
+     * 检测字符集时读取的字节数
+     */
+    private static final int DETECT_BYTES = 64 * 1024;
+    /**
+     * 扫描分块边界时每次映射的大小
+     */
+    private static final int SCAN_WINDOW = 256 * 1024 * 1024;
+    /**
+     * 无BOM且不是UTF-8时使用的字符集
+     */
+    private static final Charset GBK = Charset.forName("GBK");
+
+    /**
+     * 字段解析状态
+     */
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    public static CsvParser start() {
+        return new CsvParser();
+    }
+
+    public CsvParser file(File file) {
+        this.file = file;
+        return this;
+    }
+
+    public CsvParser beginRowNum(int beginRowNum) {
+        this.beginRowNum = beginRowNum;
+        return this;
+    }
+
+    /**
+     * 指定字符集，不指定时按BOM识别，无BOM时检测是否为UTF-8，不是时按GBK读取
+     * @param charset 字符集
+     */
+    public CsvParser charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * 字段分隔符，默认逗号
+     * @param delimiter 分隔符，只支持单字节字符
+     */
+    public CsvParser delimiter(char delimiter) {
+        if (delimiter > 0x7F || delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("不支持的分隔符：" + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+        return this;
+    }
+
+    /**
+     * 按TSV（制表符分隔）解析
+     */
+    public CsvParser tsv() {
+        return this.delimiter('\t');
+    }
+
+    /**
+     * 开启并行解析，文件大于一个分块时才会并行
+     * @param threads 线程数，小于等于1时不并行
+     */
+    public CsvParser parallel(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * 分块大小，默认32MB
+     * @param chunkSize 分块大小（字节），最大1GB
+     */
+    public CsvParser chunkSize(int chunkSize) {
+        if (chunkSize < 1 || chunkSize > 1 << 30) {
+            throw new IllegalArgumentException("分块大小必须在1字节到1GB之间");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 并行解析时每个分块最多缓冲的行数
+     * @param chunkBufferRows 缓冲行数
+     */
+    public CsvParser chunkBufferRows(int chunkBufferRows) {
+        if (chunkBufferRows < 1) {
+            throw new IllegalArgumentException("分块缓冲行数必须大于0");
+        }
+        this.chunkBufferRows = chunkBufferRows;
+        return this;
+    }
+
+    /**
+     * 执行解析，每行回调一次
+     * @param rowHandler 参数依次为：第几个sheet页（固定为1）、行号（从1开始）、行数据
+     */
+    public void run(ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+        long startTime = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, DETECT_BYTES));
+            Charset cs = this.charset;
+            int bomLength = bomLength(head);
+            if (cs == null) {
+                cs = detectCharset(head, bomLength);
+            }
+            Source source;
+            if (isAsciiCompatible(cs)) {
+                source = new FileSource(channel);
+            } else {
+                // UTF-16等非ASCII兼容的编码按字节无法识别分隔符，转为UTF-8后解析
+                ByteBuffer all = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                all.position(bomLength);
+                CharBuffer chars = cs.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE).decode(all);
+                source = new HeapSource(StandardCharsets.UTF_8.encode(chars));
+                cs = StandardCharsets.UTF_8;
+                bomLength = 0;
+            }
+            Charset dataCharset = cs;
+            if (this.threads > 1 && source.size() - bomLength > this.chunkSize) {
+                this.parseChunksInParallel(source, bomLength, dataCharset, rowHandler);
+            } else if (source.size() > Integer.MAX_VALUE) {
+                // 单个映射不能超过2GB，按分块顺序解析
+                this.scanChunks(source, bomLength, chunk -> new ChunkParser(source.region(chunk.start, chunk.end - chunk.start), dataCharset, chunk.firstRowNum, rowHandler).parse());
+            } else {
+                new ChunkParser(source.region(bomLength, source.size() - bomLength), dataCharset, 1, rowHandler).parse();
+            }
+        } finally {
+            log.debug("读取【{}】CSV并处理结束，耗时{}秒", this.file.getName(), BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+        }
+    }
+
+    /**
+     * BOM长度，没有BOM时为0
+     */
+    private static int bomLength(ByteBuffer head) {
+        int limit = head.limit();
+        if (limit >= 3 && (head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF) {
+            return 3;
+        }
+        if (limit >= 2 && ((head.get(0) & 0xFF) == 0xFF && (head.get(1) & 0xFF) == 0xFE || (head.get(0) & 0xFF) == 0xFE && (head.get(1) & 0xFF) == 0xFF)) {
+            return 2;
+        }
+        return 0;
+    }
+
+    /**
+     * 按BOM识别字符集，无BOM时检测开头部分是否为合法的UTF-8，不是时为GBK
+     */
+    private static Charset detectCharset(ByteBuffer head, int bomLength) {
+        if (bomLength == 3) {
+            return StandardCharsets.UTF_8;
+        }
+        if (bomLength == 2) {
+            return (head.get(0) & 0xFF) == 0xFF ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_16BE;
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer sample = head.duplicate();
+        sample.position(0);
+        CharBuffer out = CharBuffer.allocate(sample.remaining());
+        // 末尾可能截断了一个多字节字符，不作为输入结束
+        CoderResult result = decoder.decode(sample, out, false);
+        return result.isError() ? GBK : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 分隔符、引号、换行是否与ASCII编码相同且不会出现在多字节字符中
+     */
+    private static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return !name.startsWith("UTF-16") && !name.startsWith("UTF-32");
+    }
+
+    /**
+     * 顺序扫描一遍字节，按与解析相同的引号规则找出记录边界，每个分块至少chunkSize字节且结束于记录末尾，
+     * 每找到一个分块立即交给chunkHandler
+     */
+    private void scanChunks(Source source, long dataStart, ChunkHandler chunkHandler) throws Exception {
+        long size = source.size();
+        long chunkStart = dataStart;
+        long target = chunkStart + this.chunkSize;
+        int firstRowNum = 1;
+        int rows = 0;
+        int state = FIELD_START;
+        byte delimiter = this.delimiter;
+        for (long windowStart = dataStart; windowStart < size; windowStart += SCAN_WINDOW) {
+            int windowLength = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            ByteBuffer window = source.region(windowStart, windowLength);
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+                switch (state) {
+                    case QUOTED:
+                        if (b == QUOTE) {
+                            state = QUOTE_IN_QUOTED;
+                        }
+                        continue;
+                    case QUOTE_IN_QUOTED:
+                        state = b == QUOTE ? QUOTED : (b == delimiter ? FIELD_START : (b == LF ? FIELD_START : UNQUOTED));
+                        break;
+                    case FIELD_START:
+                        state = b == QUOTE ? QUOTED : (b == delimiter || b == LF ? FIELD_START : UNQUOTED);
+                        break;
+                    default:
+                        if (b == delimiter || b == LF) {
+                            state = FIELD_START;
+                        }
+                }
+                if (b == LF && state == FIELD_START) {
+                    rows++;
+                    long end = windowStart + i + 1;
+                    if (end >= target) {
+                        emitChunk(new Chunk(chunkStart, end, firstRowNum), chunkHandler);
+                        firstRowNum += rows;
+                        rows = 0;
+                        chunkStart = end;
+                        target = chunkStart + this.chunkSize;
+                    }
+                }
+            }
+        }
+        if (chunkStart < size || chunkStart == dataStart) {
+            emitChunk(new Chunk(chunkStart, size, firstRowNum), chunkHandler);
+        }
+    }
+
+    private static void emitChunk(Chunk chunk, ChunkHandler chunkHandler) throws Exception {
+        if (chunk.end - chunk.start > Integer.MAX_VALUE) {
+            throw new IllegalStateException("CSV单条记录过大，无法分块：" + chunk.start + "~" + chunk.end);
+        }
+        chunkHandler.accept(chunk);
+    }
+
+    /**
+     * 多线程并行解析分块：扫描线程每找到一个分块就提交解析，并按分块顺序登记；各分块解析出的行先放入该分块的有界缓冲，
+     * 调用线程按分块顺序逐个取出交给rowHandler。扫描、任一分块解析或rowHandler抛出异常时，停止其余线程并抛出该异常
+     */
+    private void parseChunksInParallel(Source source, long dataStart, Charset cs, ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+        // 解析线程之外再加一个扫描线程
+        int nThreads = this.threads + 1;
+        ExecutorService pool = new ThreadPoolExecutor(nThreads, nThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        // 分块解析结束的标记
+        Three<Integer, Integer, List<String>> chunkEnd = new Three<>(-1, -1, null);
+        // 已提交解析的分块，按分块顺序；扫描结束的标记
+        BlockingQueue<ChunkTask> tasks = new LinkedBlockingQueue<>();
+        ChunkTask scanEnd = new ChunkTask(null, null);
+        try {
+            // 扫描任务最先提交，各分块按顺序提交，保证当前待取的分块一定已在解析，不会死锁
+            Future<?> scan = pool.submit(() -> {
+                try {
+                    this.scanChunks(source, dataStart, chunk -> {
+                        BlockingQueue<Three<Integer, Integer, List<String>>> buffer = new ArrayBlockingQueue<>(this.chunkBufferRows);
+                        Future<?> future = pool.submit(() -> {
+                            try {
+                                new ChunkParser(source.region(chunk.start, chunk.end - chunk.start), cs, chunk.firstRowNum,
+                                        (s, r, row) -> SAXExcelParser.putOrCancel(buffer, new Three<>(s, r, row))).parse();
+                            } finally {
+                                SAXExcelParser.putOrCancel(buffer, chunkEnd);
+                            }
+                            return null;
+                        });
+                        tasks.add(new ChunkTask(buffer, future));
+                    });
+                } finally {
+                    tasks.add(scanEnd);
+                }
+                return null;
+            });
+            ChunkTask task;
+            while ((task = tasks.take()) != scanEnd) {
+                Three<Integer, Integer, List<String>> rowData;
+                while ((rowData = task.buffer.take()) != chunkEnd) {
+                    rowHandler.accept(rowData.getFirst(), rowData.getSecond(), rowData.getThree());
+                }
+                await(task.future);
+            }
+            await(scan);
+        } finally {
+            // 正常结束时所有任务已完成；异常时中断仍阻塞在缓冲上的解析线程
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 等待任务结束，任务抛出的异常原样抛出
+     */
+    private static void await(Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 按记录对齐的分块
+     */
+    private static class Chunk {
+        // 起始偏移（包含）
+        private final long start;
+        // 结束偏移（不包含）
+        private final long end;
+        // 第一条记录的行号
+        private final int firstRowNum;
+
+        Chunk(long start, long end, int firstRowNum) {
+            this.start = start;
+            this.end = end;
+            this.firstRowNum = firstRowNum;
+        }
+    }
+
+    /**
+     * 已提交解析的分块：解析出的行的缓冲、解析任务
+     */
+    private static class ChunkTask {
+        private final BlockingQueue<Three<Integer, Integer, List<String>>> buffer;
+        private final Future<?> future;
+
+        ChunkTask(BlockingQueue<Three<Integer, Integer, List<String>>> buffer, Future<?> future) {
+            this.buffer = buffer;
+            this.future = future;
+        }
+    }
+
+    /**
+     * 分块处理
+     */
+    @FunctionalInterface
+    private interface ChunkHandler {
+        void accept(Chunk chunk) throws Exception;
+    }
+
+    /**
+     * 数据来源，按偏移取一段字节
+     */
+    private interface Source {
+        long size() throws IOException;
+
+        ByteBuffer region(long start, long length) throws IOException;
+    }
+
+    /**
+     * 内存映射文件
+     */
+    private static class FileSource implements Source {
+        private final FileChannel channel;
+
+        FileSource(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.channel.size();
+        }
+
+        @Override
+        public ByteBuffer region(long start, long length) throws IOException {
+            return this.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+    }
+
+    /**
+     * 内存中的数据（转码后的UTF-16文件）
+     */
+    private static class HeapSource implements Source {
+        private final ByteBuffer buffer;
+
+        HeapSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long size() {
+            return this.buffer.limit();
+        }
+
+        @Override
+        public ByteBuffer region(long start, long length) {
+            ByteBuffer region = this.buffer.duplicate();
+            region.position((int) start);
+            region.limit((int) (start + length));
+            return region.slice();
+        }
+    }
+
+    /**
+     * 解析一个分块，与{@link #scanChunks}使用相同的状态转换
+     */
+    private class ChunkParser {
+        private final ByteBuffer data;
+        private final Charset cs;
+        private final ThreeConsumer<Integer, Integer, List<String>> rowHandler;
+        // 当前记录的行号
+        private int rowNum;
+        // 当前记录是否交付，起始行及之前的行只找边界、不解码
+        private boolean deliver;
+        private List<String> row;
+        // 当前字段的字节，复用
+        private byte[] field = new byte[256];
+        private int fieldLength = 0;
+
+        ChunkParser(ByteBuffer data, Charset cs, int firstRowNum, ThreeConsumer<Integer, Integer, List<String>> rowHandler) {
+            this.data = data;
+            this.cs = cs;
+            this.rowNum = firstRowNum;
+            this.rowHandler = rowHandler;
+        }
+
+        void parse() {
+            byte delimiter = CsvParser.this.delimiter;
+            int limit = this.data.limit();
+            int state = FIELD_START;
+            int recordStart = 0;
+            this.startRecord();
+            for (int i = 0; i < limit; i++) {
+                byte b = this.data.get(i);
+                switch (state) {
+                    case QUOTED:
+                        if (b == QUOTE) {
+                            state = QUOTE_IN_QUOTED;
+                        } else {
+                            this.append(b);
+                        }
+                        continue;
+                    case QUOTE_IN_QUOTED:
+                        if (b == QUOTE) {
+                            // 字段内的""为一个双引号
+                            this.append(b);
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    case FIELD_START:
+                        if (b == QUOTE) {
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    default:
+                }
+                if (b == delimiter) {
+                    this.endField();
+                    state = FIELD_START;
+                } else if (b == LF) {
+                    // 去掉\r\n中的\r
+                    boolean crlf = i > recordStart && this.data.get(i - 1) == CR && state != FIELD_START;
+                    if (crlf && this.fieldLength > 0) {
+                        this.fieldLength--;
+                    }
+                    this.endRecord(i - recordStart - (crlf ? 1 : 0) > 0);
+                    recordStart = i + 1;
+                    state = FIELD_START;
+                } else {
+                    // 引号外的普通字符，结束引号之后的字符也按原样保留
+                    this.append(b);
+                    state = UNQUOTED;
+                }
+            }
+            if (recordStart < limit) {
+                // 最后一条记录没有换行
+                this.endRecord(true);
+            }
+        }
+
+        private void startRecord() {
+            this.deliver = CsvParser.this.beginRowNum < this.rowNum;
+            this.row = this.deliver ? new ArrayList<>() : null;
+            this.fieldLength = 0;
+        }
+
+        private void append(byte b) {
+            if (!this.deliver) {
+                return;
+            }
+            if (this.fieldLength == this.field.length) {
+                this.field = Arrays.copyOf(this.field, this.field.length * 2);
+            }
+            this.field[this.fieldLength++] = b;
+        }
+
+        private void endField() {
+            if (this.deliver) {
+                this.row.add(new String(this.field, 0, this.fieldLength, this.cs));
+            }
+            this.fieldLength = 0;
+        }
+
+        /**
+         * 记录结束
+         * @param hasContent 是否有内容，空行交付空List
+         */
+        private void endRecord(boolean hasContent) {
+            if (hasContent) {
+                this.endField();
+            }
+            if (this.deliver) {
+                this.rowHandler.accept(1, this.rowNum, this.row);
+            }
+            this.rowNum++;
+            this.startRecord();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.FileImportResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     多文件并发导入：一个目录或一组Excel文件，在共用的线程池中并发解析，
+ *     同时处理的文件数不超过线程数，同时处理的文件估算内存（按文件大小和共享字符串表大小，见{@link SAXExcelParser#estimateMemory()}）之和不超过内存预算。
+ *     按估算内存从大到小调度，大文件先开始，内存配额公平排队，大文件不会一直等不到配额；
+ *     单个文件估算超过预算时按预算计（独占）。单个文件失败不影响其余文件，每个文件返回一个结果，顺序与输入一致
+ * </p>
+ * <pre>
+ * List&lt;FileImportResult&gt; results = ExcelBatchImporter.start()
+ *         .directory(dir)
+ *         .threads(8)
+ *         .memoryBudget(4L &lt;&lt; 30)
+ *         .parser(parser -&gt; parser.mappedSharedStrings())
+ *         .run((file, sheetIndex, rowIndex, row) -&gt; ...);
+ * </pre>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:50
+ */
+@Slf4j
+public class ExcelBatchImporter {
+
+    /**
+     * 内存配额单位（1MB）
+     */
+    private static final int PERMIT_SHIFT = 20;
+
+    /**
+     * 要导入的文件
+     */
+    private final List<File> files = new ArrayList<>();
+    /**
+     * 同时处理的文件数
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * 内存预算（字节），默认为最大堆内存的一半
+     */
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+    /**
+     * 每个文件的解析设置
+     */
+    private Consumer<SAXExcelParser> parserSetup = parser -> { };
+
+    /**
+     * 单个文件的导入
+     */
+    @FunctionalInterface
+    public interface FileTask {
+        /**
+         * 导入一个文件，不同文件在不同线程中并发执行
+         * @param file 文件
+         * @param parser 已设置好文件和解析设置的解析器
+         * @return 处理的行数
+         */
+        long run(File file, SAXExcelParser parser) throws Exception;
+    }
+
+    /**
+     * 多文件的行处理，不同文件的行在不同线程中并发回调，需线程安全
+     */
+    @FunctionalInterface
+    public interface FileRowHandler {
+        void accept(File file, int sheetIndex, int rowIndex, List<String> row);
+    }
+
+    private ExcelBatchImporter() {
+    }
+
+    public static ExcelBatchImporter start() {
+        return new ExcelBatchImporter();
+    }
+
+    /**
+     * 导入目录下的Excel文件（xlsx、xlsm、xls，不含子目录和Office打开时生成的~$临时文件），按文件名排序
+     * @param dir 目录
+     */
+    public ExcelBatchImporter directory(File dir) {
+        File[] found = dir.listFiles((d, name) -> {
+            String lower = name.toLowerCase();
+            return !name.startsWith("~$") && (lower.endsWith(".xlsx") || lower.endsWith(".xlsm") || lower.endsWith(".xls"));
+        });
+        if (found == null) {
+            throw new IllegalArgumentException("不是目录或无法读取：" + dir.getAbsolutePath());
+        }
+        Arrays.sort(found, Comparator.comparing(File::getName));
+        this.files.addAll(Arrays.asList(found));
+        return this;
+    }
+
+    /**
+     * 导入指定的文件
+     */
+    public ExcelBatchImporter files(Collection<File> files) {
+        this.files.addAll(files);
+        return this;
+    }
+
+    /**
+     * 同时处理的文件数，默认为CPU核数
+     */
+    public ExcelBatchImporter threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("线程数必须大于0");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * 内存预算，同时处理的文件估算内存之和不超过该值，默认为最大堆内存的一半
+     * @param bytes 字节数
+     */
+    public ExcelBatchImporter memoryBudget(long bytes) {
+        if (bytes < 1L << PERMIT_SHIFT) {
+            throw new IllegalArgumentException("内存预算不能小于1MB");
+        }
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    /**
+     * 每个文件的解析设置，如sheet页、列投影、日期列、内存映射共享字符串表；在设置文件之后、估算内存之前执行
+     * @param parserSetup 解析设置
+     */
+    public ExcelBatchImporter parser(Consumer<SAXExcelParser> parserSetup) {
+        this.parserSetup = parserSetup;
+        return this;
+    }
+
+    /**
+     * 逐行导入所有文件
+     * @param rowHandler 行处理，参数依次为：文件、第几个sheet页（从1开始）、行号（从1开始）、行数据
+     * @return 各文件的结果，顺序与输入一致
+     */
+    public List<FileImportResult> run(FileRowHandler rowHandler) throws InterruptedException {
+        return this.runEach((file, parser) -> {
+            long[] rows = {0};
+            parser.run((sheetIndex, rowIndex, row) -> {
+                rowHandler.accept(file, sheetIndex, rowIndex, row);
+                rows[0]++;
+            });
+            return rows[0];
+        });
+    }
+
+    /**
+     * 逐个文件执行导入，可使用解析器的任意读取方式（如runBatched）
+     * @param task 单个文件的导入
+     * @return 各文件的结果，顺序与输入一致
+     */
+    public List<FileImportResult> runEach(FileTask task) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        int permits = (int) Math.min(this.memoryBudget >>> PERMIT_SHIFT, Integer.MAX_VALUE);
+        // 公平排队，等待中的大文件不会被之后的小文件一直插队
+        Semaphore memory = new Semaphore(permits, true);
+        List<FileImportResult> results = new ArrayList<>(this.files.size());
+        List<SAXExcelParser> parsers = new ArrayList<>(this.files.size());
+        for (File file : this.files) {
+            FileImportResult result = new FileImportResult();
+            result.setFile(file);
+            results.add(result);
+            SAXExcelParser parser = null;
+            try {
+                parser = SAXExcelParser.start().file(file);
+                this.parserSetup.accept(parser);
+                result.setEstimatedMemory(parser.estimateMemory());
+            } catch (Exception e) {
+                result.setError(e);
+                parser = null;
+            }
+            parsers.add(parser);
+        }
+        // 估算内存从大到小调度
+        Integer[] order = new Integer[results.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> results.get(i).getEstimatedMemory()).reversed());
+
+        int nThreads = Math.max(Math.min(this.threads, results.size()), 1);
+        ExecutorService pool = new ThreadPoolExecutor(nThreads, nThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        AtomicLong totalRows = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>(order.length);
+            for (int i : order) {
+                FileImportResult result = results.get(i);
+                SAXExcelParser parser = parsers.get(i);
+                if (parser == null) {
+                    continue;
+                }
+                int need = (int) Math.max(Math.min((result.getEstimatedMemory() + (1L << PERMIT_SHIFT) - 1) >>> PERMIT_SHIFT, permits), 1);
+                futures.add(pool.submit(() -> {
+                    long waitStart = System.nanoTime();
+                    memory.acquire(need);
+                    try {
+                        long start = System.nanoTime();
+                        result.setWaitNanos(start - waitStart);
+                        try {
+                            long rows = task.run(result.getFile(), parser);
+                            result.setRows(rows);
+                            result.setSuccess(true);
+                            totalRows.addAndGet(rows);
+                        } catch (Exception e) {
+                            log.warn("导入【{}】失败", result.getFile().getName(), e);
+                            result.setError(e);
+                        } finally {
+                            result.setNanos(System.nanoTime() - start);
+                        }
+                    } finally {
+                        memory.release(need);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // 任务内已记录异常，只有Error会到这里
+                    throw new IllegalStateException("文件导入异常", e.getCause());
+                }
+            }
+        } finally {
+            // 正常结束时所有任务已完成；调用线程被中断时中断仍在执行和等待的导入
+            pool.shutdownNow();
+        }
+        long failed = results.stream().filter(result -> !result.isSuccess()).count();
+        log.debug("导入{}个文件结束，失败{}个，共{}行，耗时{}秒", results.size(), failed, totalRows.get(),
+                BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+        return results;
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.dc.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * <p>
+ *     Excel日期序列号格式化：格式只编译一次；只有日期部分（整数序列号）的值重复率很高，
+ *     按序列号缓存格式化结果（直接映射的小缓存，冲突时覆盖）。
+ *     缓存项不可变，多线程并发使用无需加锁
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 17:10
+ */
+@Slf4j
+class ExcelDateFormatter {
+
+    /**
+     * Excel 日期基准点 1899-12-30 距 1970-01-01 的天数
+     */
+    private static final long EXCEL_EPOCH_DAY = LocalDate.of(1899, 12, 30).toEpochDay();
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    /**
+     * 缓存大小，必须是2的幂
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * 日期格式
+     */
+    private final String pattern;
+    /**
+     * 编译后的格式，格式错误时为null
+     */
+    private final DateTimeFormatter formatter;
+    /**
+     * 整数序列号 -> 格式化结果
+     */
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    ExcelDateFormatter(String pattern) {
+        this.pattern = pattern;
+        DateTimeFormatter compiled = null;
+        try {
+            compiled = DateTimeFormatter.ofPattern(pattern);
+        } catch (IllegalArgumentException e) {
+            log.warn("日期格式错误，该列日期不做格式化！格式：{}", pattern, e);
+        }
+        this.formatter = compiled;
+    }
+
+    /**
+     * 编译后的格式
+     * @throws IllegalArgumentException 日期格式错误
+     */
+    DateTimeFormatter getFormatter() {
+        if (this.formatter == null) {
+            throw new IllegalArgumentException("日期格式错误：" + this.pattern);
+        }
+        return this.formatter;
+    }
+
+    /**
+     * 将 Excel 日期序列号转换为格式化字符串，负数或格式化失败时返回序列号本身
+     * @param excelDate Excel 日期序列号
+     * @return 格式化后的日期字符串
+     */
+    String format(double excelDate) {
+        if (excelDate < 0 || this.formatter == null) {
+            return String.valueOf(excelDate);
+        }
+        if (excelDate != Math.floor(excelDate) || excelDate > Integer.MAX_VALUE) {
+            return this.doFormat(excelDate);
+        }
+        int day = (int) excelDate;
+        int slot = day & (CACHE_SIZE - 1);
+        Entry entry = this.cache[slot];
+        if (entry != null && entry.day == day) {
+            return entry.text;
+        }
+        String text = this.doFormat(excelDate);
+        this.cache[slot] = new Entry(day, text);
+        return text;
+    }
+
+    private String doFormat(double excelDate) {
+        try {
+            return toLocalDateTime(excelDate).format(this.formatter);
+        } catch (Exception e) {
+            log.warn("日期格式化失败！数据：{}，格式：{}", excelDate, this.pattern, e);
+            return String.valueOf(excelDate);
+        }
+    }
+
+    /**
+     * 将 Excel 日期序列号转换为日期时间（精确到毫秒）。
+     * Excel 错误地将 1900 年当作闰年，所以基准点是 1899-12-30
+     * @param excelDate Excel 日期序列号
+     * @return 日期时间
+     */
+    static LocalDateTime toLocalDateTime(double excelDate) {
+        long wholeDays = (long) excelDate;
+        // 计算时间部分（毫秒）
+        long millisecondsInDay = Math.round((excelDate - wholeDays) * MILLIS_PER_DAY);
+        if (millisecondsInDay < 0 || millisecondsInDay >= MILLIS_PER_DAY) {
+            // 负数序列号或四舍五入进位到下一天
+            return LocalDate.ofEpochDay(EXCEL_EPOCH_DAY).atStartOfDay()
+                    .plusDays(wholeDays)
+                    .plusNanos(millisecondsInDay * 1_000_000);
+        }
+        return LocalDateTime.of(LocalDate.ofEpochDay(EXCEL_EPOCH_DAY + wholeDays), LocalTime.ofNanoOfDay(millisecondsInDay * 1_000_000));
+    }
+
+    /**
+     * 缓存项，不可变
+     */
+    private static final class Entry {
+        private final int day;
+        private final String text;
+
+        Entry(int day, String text) {
+            this.day = day;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.DiffRow;
+import com.github.dc.utils.pojo.DiffSummary;
+import com.github.dc.utils.pojo.DiffType;
+import com.github.dc.utils.pojo.ExcelWriteSetup;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     按关键列流式比对两个Excel（如昨天和今天的导出），找出新增、删除和有变化的行。
+ *     两边各用{@link ExcelSorter}按关键列外部排序（两边并行，各占一半内存预算），再归并连接（merge join）逐行比对，
+ *     堆内存只与内存预算有关，与行数无关，不需要把任一边整个放进内存。
+ *     <ul>
+ *         <li>关键列相同的行按原来的位置（sheet页序号、行号）顺序一一对应，多出的算新增或删除，并行解析sheet页时结果也相同</li>
+ *         <li>比对的列按文本比较，缺少的列视为空单元格；未指定时比对除关键列外的所有列</li>
+ *         <li>全部单元格为空的行不参与比对</li>
+ *     </ul>
+ *     差异交给差异处理，或直接写入{@link SAXExcelWriter}
+ * </p>
+ * <pre>
+ * DiffSummary summary = ExcelDiff.start()
+ *         .from(SAXExcelParser.start().file(yesterday).beginRowNum(1))
+ *         .to(SAXExcelParser.start().file(today).beginRowNum(1))
+ *         .keys(1)
+ *         .memoryBudget(512L &lt;&lt; 20)
+ *         .run(diff -&gt; ...);
+ * </pre>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:59
+ */
+@Slf4j
+public class ExcelDiff {
+
+    /**
+     * 写入SAXExcelWriter时每批行数
+     */
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    /**
+     * 原文件
+     */
+    private SAXExcelParser oldSource;
+    /**
+     * 新文件
+     */
+    private SAXExcelParser newSource;
+    /**
+     * 关键列，按优先级
+     */
+    private final List<Key> keys = new ArrayList<>();
+    /**
+     * 比对的列，为null时比对除关键列外的所有列
+     */
+    private int[] columns;
+    /**
+     * 内存预算（字节），两边排序各占一半
+     */
+    private long memoryBudget = 128L << 20;
+    /**
+     * 临时文件目录，为null时使用java.io.tmpdir
+     */
+    private File tempDir;
+
+    /**
+     * 关键列
+     */
+    private static class Key {
+        // 列号，从1开始
+        private final int column;
+        // 是否按数值比较
+        private final boolean numeric;
+
+        Key(int column, boolean numeric) {
+            this.column = column;
+            this.numeric = numeric;
+        }
+    }
+
+    private ExcelDiff() {
+    }
+
+    public static ExcelDiff start() {
+        return new ExcelDiff();
+    }
+
+    /**
+     * 原文件，按其读取设置（sheet页、起始行、列投影等）读取
+     */
+    public ExcelDiff from(SAXExcelParser oldSource) {
+        this.oldSource = oldSource;
+        return this;
+    }
+
+    /**
+     * 新文件，按其读取设置（sheet页、起始行、列投影等）读取
+     */
+    public ExcelDiff to(SAXExcelParser newSource) {
+        this.newSource = newSource;
+        return this;
+    }
+
+    /**
+     * 按文本比较的关键列，可多次调用
+     * @param columns 列号，从1开始
+     */
+    public ExcelDiff keys(int... columns) {
+        for (int column : columns) {
+            this.key(column, false);
+        }
+        return this;
+    }
+
+    /**
+     * 关键列，可多次调用
+     * @param column 列号，从1开始
+     * @param numeric 是否按数值比较，如"1"和"1.0"视为相同
+     */
+    public ExcelDiff key(int column, boolean numeric) {
+        if (column < 1) {
+            throw new IllegalArgumentException("列号必须大于0");
+        }
+        this.keys.add(new Key(column, numeric));
+        return this;
+    }
+
+    /**
+     * 比对的列，不设置时比对除关键列外的所有列
+     * @param columns 列号，从1开始
+     */
+    public ExcelDiff columns(int... columns) {
+        for (int column : columns) {
+            if (column < 1) {
+                throw new IllegalArgumentException("列号必须大于0");
+            }
+        }
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * 内存预算，两边排序各占一半，默认128MB
+     * @param bytes 字节数
+     */
+    public ExcelDiff memoryBudget(long bytes) {
+        if (bytes < 2) {
+            throw new IllegalArgumentException("内存预算必须大于1");
+        }
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    /**
+     * 临时文件目录，不设置时使用java.io.tmpdir
+     */
+    public ExcelDiff tempDir(File tempDir) {
+        this.tempDir = tempDir;
+        return this;
+    }
+
+    /**
+     * 比对，按关键列顺序逐个回调差异
+     * @param diffHandler 差异处理
+     * @return 统计
+     */
+    public DiffSummary run(Consumer<DiffRow> diffHandler) throws Exception {
+        long startTime = System.currentTimeMillis();
+        try (DiffCursor cursor = this.open()) {
+            DiffRow diff;
+            while ((diff = cursor.next()) != null) {
+                diffHandler.accept(diff);
+            }
+            log.debug("比对结束，新增{}行，删除{}行，变化{}行，相同{}行，耗时{}秒", cursor.summary.getAdded(), cursor.summary.getRemoved(),
+                    cursor.summary.getChanged(), cursor.summary.getUnchanged(),
+                    BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+            return cursor.summary;
+        }
+    }
+
+    /**
+     * 比对后把差异写入Excel，列依次为：类型、关键列、原sheet页、原行号、新sheet页、新行号、列号、原值、新值。
+     * 变化的行每个变化的列写一行；新增、删除的行写一行，列号为空，原值或新值为整行（各列以" | "连接）。
+     * 比对或写入失败时抛出异常
+     * @param writer 写入器，已设置sheet名称和输出流
+     * @return 统计
+     */
+    public DiffSummary writeTo(SAXExcelWriter writer) throws Exception {
+        String[] headers = {"类型", "关键列", "原sheet页", "原行号", "新sheet页", "新行号", "列号", "原值", "新值"};
+        String[] varNames = {"type", "key", "oldSheetIndex", "oldRowIndex", "newSheetIndex", "newRowIndex", "column", "oldValue", "newValue"};
+        List<ExcelWriteSetup.HeaderCell> headerCells = new ArrayList<>(headers.length);
+        for (int i = 0; i < headers.length; i++) {
+            headerCells.add(ExcelWriteSetup.HeaderCell.builder().orderSeq(i).text(headers[i]).varName(varNames[i]).build());
+        }
+        ExcelWriteSetup setup = ExcelWriteSetup.builder().batchWrite(true).headerCell(headerCells).build();
+        Exception[] error = {null};
+        try (DiffCursor cursor = this.open()) {
+            writer.setup(setup).write(batchNum -> {
+                List<Map<String, Object>> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+                try {
+                    DiffRow diff;
+                    while (batch.size() < WRITE_BATCH_SIZE && (diff = cursor.next()) != null) {
+                        toWriteRows(diff, batch);
+                    }
+                } catch (Exception e) {
+                    // 记下原始异常，中止写入后抛出
+                    error[0] = e;
+                    throw new IllegalStateException("读取比对结果异常", e);
+                }
+                return batch.isEmpty() ? null : batch;
+            });
+            return cursor.summary;
+        } catch (Exception e) {
+            throw error[0] != null ? error[0] : e;
+        }
+    }
+
+    /**
+     * 两边并行排序，返回归并连接的游标
+     */
+    private DiffCursor open() throws Exception {
+        if (this.oldSource == null || this.newSource == null) {
+            throw new IllegalArgumentException("未设置比对的两个文件");
+        }
+        if (this.keys.isEmpty()) {
+            throw new IllegalArgumentException("未设置关键列");
+        }
+        ExcelSorter oldSorter = this.sorter(this.oldSource);
+        ExcelSorter newSorter = this.sorter(this.newSource);
+        ExecutorService pool = new ThreadPoolExecutor(1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            Future<ExcelSorter.RowSource> oldFuture = pool.submit(oldSorter::sort);
+            ExcelSorter.RowSource newRows;
+            try {
+                newRows = newSorter.sort();
+            } catch (Exception e) {
+                // 等原文件排序结束后删除其临时文件
+                try {
+                    oldFuture.get().close();
+                } catch (Exception ignore) {
+                    // 以新文件的异常为准
+                }
+                throw e;
+            }
+            ExcelSorter.RowSource oldRows;
+            try {
+                oldRows = oldFuture.get();
+            } catch (ExecutionException e) {
+                newRows.close();
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new IllegalStateException("原文件排序异常", cause);
+            } catch (InterruptedException e) {
+                newRows.close();
+                throw e;
+            }
+            return new DiffCursor(oldRows, newRows, oldSorter.keyComparator());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ExcelSorter sorter(SAXExcelParser source) {
+        ExcelSorter sorter = ExcelSorter.start().from(source).memoryBudget(Math.max(this.memoryBudget / 2, 1)).tempDir(this.tempDir);
+        for (Key key : this.keys) {
+            sorter.key(key.column, key.numeric, false);
+        }
+        return sorter;
+    }
+
+    private List<String> keyOf(List<String> row) {
+        List<String> key = new ArrayList<>(this.keys.size());
+        for (Key k : this.keys) {
+            key.add(ExcelSorter.cell(row, k.column));
+        }
+        return key;
+    }
+
+    /**
+     * 比对的列中文本不同的列
+     */
+    private List<Integer> changedColumns(List<String> oldRow, List<String> newRow) {
+        List<Integer> changed = new ArrayList<>();
+        if (this.columns != null) {
+            for (int column : this.columns) {
+                if (!ExcelSorter.cell(oldRow, column).equals(ExcelSorter.cell(newRow, column))) {
+                    changed.add(column);
+                }
+            }
+            return changed;
+        }
+        int size = Math.max(oldRow.size(), newRow.size());
+        for (int column = 1; column <= size; column++) {
+            if (!this.isKey(column) && !ExcelSorter.cell(oldRow, column).equals(ExcelSorter.cell(newRow, column))) {
+                changed.add(column);
+            }
+        }
+        return changed;
+    }
+
+    private boolean isKey(int column) {
+        for (Key key : this.keys) {
+            if (key.column == column) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void toWriteRows(DiffRow diff, List<Map<String, Object>> batch) {
+        String type = diff.getType() == DiffType.ADDED ? "新增" : diff.getType() == DiffType.REMOVED ? "删除" : "变化";
+        if (diff.getType() != DiffType.CHANGED) {
+            Map<String, Object> rowData = writeRow(diff, type);
+            if (diff.getType() == DiffType.ADDED) {
+                rowData.put("newValue", String.join(" | ", diff.getNewRow()));
+            } else {
+                rowData.put("oldValue", String.join(" | ", diff.getOldRow()));
+            }
+            batch.add(rowData);
+            return;
+        }
+        for (Integer column : diff.getChangedColumns()) {
+            Map<String, Object> rowData = writeRow(diff, type);
+            rowData.put("column", column);
+            rowData.put("oldValue", ExcelSorter.cell(diff.getOldRow(), column));
+            rowData.put("newValue", ExcelSorter.cell(diff.getNewRow(), column));
+            batch.add(rowData);
+        }
+    }
+
+    private static Map<String, Object> writeRow(DiffRow diff, String type) {
+        Map<String, Object> rowData = new HashMap<>();
+        rowData.put("type", type);
+        rowData.put("key", String.join(" | ", diff.getKey()));
+        if (diff.getOldRow() != null) {
+            rowData.put("oldSheetIndex", diff.getOldSheetIndex());
+            rowData.put("oldRowIndex", diff.getOldRowIndex());
+        }
+        if (diff.getNewRow() != null) {
+            rowData.put("newSheetIndex", diff.getNewSheetIndex());
+            rowData.put("newRowIndex", diff.getNewRowIndex());
+        }
+        return rowData;
+    }
+
+    /**
+     * 归并连接：两边按关键列有序，关键列小的一边先出，相同的配对比较
+     */
+    private class DiffCursor implements Closeable {
+        private final ExcelSorter.RowSource oldRows;
+        private final ExcelSorter.RowSource newRows;
+        private final Comparator<ExcelSorter.SortRow> keyComparator;
+        private final DiffSummary summary = new DiffSummary();
+        private ExcelSorter.SortRow oldHead;
+        private ExcelSorter.SortRow newHead;
+
+        DiffCursor(ExcelSorter.RowSource oldRows, ExcelSorter.RowSource newRows, Comparator<ExcelSorter.SortRow> keyComparator) throws IOException {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+            this.keyComparator = keyComparator;
+            try {
+                this.oldHead = nextRow(oldRows);
+                this.newHead = nextRow(newRows);
+            } catch (IOException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 下一个差异，没有时返回null
+         */
+        DiffRow next() throws IOException {
+            while (this.oldHead != null || this.newHead != null) {
+                int c = this.oldHead == null ? 1 : this.newHead == null ? -1 : this.keyComparator.compare(this.oldHead, this.newHead);
+                DiffRow diff = new DiffRow();
+                if (c < 0) {
+                    diff.setType(DiffType.REMOVED);
+                    this.setOld(diff, this.oldHead);
+                    diff.setKey(keyOf(this.oldHead.cells));
+                    this.oldHead = nextRow(this.oldRows);
+                    this.summary.setRemoved(this.summary.getRemoved() + 1);
+                    return diff;
+                }
+                if (c > 0) {
+                    diff.setType(DiffType.ADDED);
+                    this.setNew(diff, this.newHead);
+                    diff.setKey(keyOf(this.newHead.cells));
+                    this.newHead = nextRow(this.newRows);
+                    this.summary.setAdded(this.summary.getAdded() + 1);
+                    return diff;
+                }
+                List<Integer> changed = changedColumns(this.oldHead.cells, this.newHead.cells);
+                if (!changed.isEmpty()) {
+                    diff.setType(DiffType.CHANGED);
+                    this.setOld(diff, this.oldHead);
+                    this.setNew(diff, this.newHead);
+                    diff.setKey(keyOf(this.oldHead.cells));
+                    diff.setChangedColumns(changed);
+                }
+                this.oldHead = nextRow(this.oldRows);
+                this.newHead = nextRow(this.newRows);
+                if (diff.getType() != null) {
+                    this.summary.setChanged(this.summary.getChanged() + 1);
+                    return diff;
+                }
+                this.summary.setUnchanged(this.summary.getUnchanged() + 1);
+            }
+            return null;
+        }
+
+        /**
+         * 下一个不全为空的行，空行不参与比对
+         */
+        private ExcelSorter.SortRow nextRow(ExcelSorter.RowSource rows) throws IOException {
+            ExcelSorter.SortRow row;
+            while ((row = rows.next()) != null) {
+                for (String cell : row.cells) {
+                    if (cell != null && !cell.isEmpty()) {
+                        return row;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void setOld(DiffRow diff, ExcelSorter.SortRow row) {
+            diff.setOldSheetIndex(row.sheetIndex);
+            diff.setOldRowIndex(row.rowIndex);
+            diff.setOldRow(row.cells);
+        }
+
+        private void setNew(DiffRow diff, ExcelSorter.SortRow row) {
+            diff.setNewSheetIndex(row.sheetIndex);
+            diff.setNewRowIndex(row.rowIndex);
+            diff.setNewRow(row.cells);
+        }
+
+        /**
+         * 关闭两边的有序行，删除临时文件
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.oldRows.close();
+            } finally {
+                this.newRows.close();
+            }
+        }
+    }
+}
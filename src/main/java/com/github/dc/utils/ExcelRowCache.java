@@ -0,0 +1,397 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.ThreeConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ *     二进制行缓存：把解析结果（与{@link SAXExcelParser#run}交付的行数据一致）保存为紧凑的二进制文件，
+ *     同一个工作簿需要多次读取（校验、预览、导入）时，只解压、解析XML、取共享字符串一次，之后通过内存映射顺序读取。
+ *     文件结构：
+ *     <ul>
+ *         <li>文件头：魔数、版本</li>
+ *         <li>行数据：每行依次为sheet页序号、与上一行的行号差、单元格数、各单元格（均为变长整数），
+ *         单元格编码为0表示空字符串，奇数表示字典中的第(编码>>>1)个字符串，偶数表示后面紧跟(编码>>>1)字节的UTF-8文本</li>
+ *         <li>字典：共享字符串单元格的文本，每个只保存一次，各条目长度+UTF-8文本</li>
+ *         <li>字典索引：各条目的起始偏移（long）</li>
+ *         <li>文件尾：字典偏移、字典索引偏移、行数、字典条目数、魔数，文件尾完整才是写完的缓存文件</li>
+ *     </ul>
+ *     字典在首次用到时解码，之后同一条目的单元格共用一个String实例。只读，可多线程并发读取
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 22:50
+ * @see SAXExcelParser#writeCache(File)
+ */
+@Slf4j
+public class ExcelRowCache implements Closeable {
+
+    private static final int MAGIC = 0x44435243;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 32;
+    /**
+     * 每段映射的大小（1GB），单个MappedByteBuffer不能超过2GB
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final File cacheFile;
+    /**
+     * 文件分段映射
+     */
+    private final MappedByteBuffer[] segments;
+    /**
+     * 字典偏移，也是行数据的结束位置
+     */
+    private final long dictionaryOffset;
+    /**
+     * 字典索引偏移
+     */
+    private final long indexOffset;
+    private final long rowCount;
+    private final int dictionarySize;
+    /**
+     * 已解码的字典条目，首次用到时解码；并发解码同一条目时结果相同，不加锁
+     */
+    private final String[] dictionary;
+
+    private ExcelRowCache(File cacheFile) throws IOException {
+        this.cacheFile = cacheFile;
+        try (RandomAccessFile raf = new RandomAccessFile(cacheFile, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, size - position));
+            }
+            if (size < HEADER_SIZE + TRAILER_SIZE || this.getInt(0) != MAGIC || this.getInt(size - 4) != MAGIC) {
+                throw new IllegalStateException("不是完整的行缓存文件：" + cacheFile.getName());
+            }
+            if (this.getInt(4) != VERSION) {
+                throw new IllegalStateException("不支持的行缓存文件版本：" + this.getInt(4));
+            }
+            long trailer = size - TRAILER_SIZE;
+            this.dictionaryOffset = this.getLong(trailer);
+            this.indexOffset = this.getLong(trailer + 8);
+            this.rowCount = this.getLong(trailer + 16);
+            this.dictionarySize = this.getInt(trailer + 24);
+            this.dictionary = new String[this.dictionarySize];
+        }
+    }
+
+    /**
+     * 打开行缓存文件
+     * @param cacheFile {@link SAXExcelParser#writeCache(File)}写入的文件
+     */
+    public static ExcelRowCache open(File cacheFile) throws IOException {
+        return new ExcelRowCache(cacheFile);
+    }
+
+    /**
+     * 按写入顺序读取所有行，每行回调一次
+     * @param rowHandler 参数依次为：第几个sheet页（从1开始）、行号（从1开始）、行数据
+     */
+    public void run(ThreeConsumer<Integer, Integer, List<String>> rowHandler) {
+        Cursor cursor = new Cursor(HEADER_SIZE);
+        int lastSheetIndex = 0;
+        int rowIndex = 0;
+        while (cursor.position() < this.dictionaryOffset) {
+            int sheetIndex = cursor.readVarint();
+            if (sheetIndex != lastSheetIndex) {
+                lastSheetIndex = sheetIndex;
+                rowIndex = 0;
+            }
+            rowIndex += cursor.readVarint();
+            int size = cursor.readVarint();
+            List<String> row = new ArrayList<>(Math.max(size, 10));
+            for (int col = 0; col < size; col++) {
+                int code = cursor.readVarint();
+                if (code == 0) {
+                    row.add("");
+                } else if ((code & 1) == 1) {
+                    row.add(this.dictionaryEntry(code >>> 1));
+                } else {
+                    row.add(cursor.readUtf8(code >>> 1));
+                }
+            }
+            rowHandler.accept(sheetIndex, rowIndex, row);
+        }
+    }
+
+    /**
+     * 行数
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * 字典条目数
+     */
+    public int getDictionarySize() {
+        return this.dictionarySize;
+    }
+
+    /**
+     * 文件大小（字节）
+     */
+    public long getFileSize() {
+        return this.cacheFile.length();
+    }
+
+    /**
+     * 只释放映射引用，不删除缓存文件。Java 8无法主动解除映射，映射要等被回收后才释放
+     */
+    @Override
+    public void close() {
+        Arrays.fill(this.segments, null);
+    }
+
+    private String dictionaryEntry(int id) {
+        String text = this.dictionary[id];
+        if (text == null) {
+            Cursor cursor = new Cursor(this.getLong(this.indexOffset + ((long) id << 3)));
+            text = cursor.readUtf8(cursor.readVarint());
+            this.dictionary[id] = text;
+        }
+        return text;
+    }
+
+    private byte get(long position) {
+        return this.segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private int getInt(long position) {
+        return (this.get(position) & 0xFF) << 24 | (this.get(position + 1) & 0xFF) << 16
+                | (this.get(position + 2) & 0xFF) << 8 | (this.get(position + 3) & 0xFF);
+    }
+
+    private long getLong(long position) {
+        return (long) this.getInt(position) << 32 | (this.getInt(position + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 顺序读取的位置，每次读取使用自己的：持有当前分段的副本，在分段内用相对读取，只在跨越分段边界时切换分段
+     */
+    private class Cursor {
+        // 当前分段的副本
+        private ByteBuffer segment;
+        // 当前分段在文件中的起始位置
+        private long segmentStart;
+        private byte[] bytes = new byte[64];
+
+        Cursor(long position) {
+            this.seek(position);
+        }
+
+        private void seek(long position) {
+            int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+            this.segment = segments[segmentIndex].duplicate();
+            this.segment.position((int) (position & SEGMENT_MASK));
+            this.segmentStart = (long) segmentIndex << SEGMENT_SHIFT;
+        }
+
+        long position() {
+            return this.segmentStart + this.segment.position();
+        }
+
+        private byte readByte() {
+            if (!this.segment.hasRemaining()) {
+                this.seek(this.position());
+            }
+            return this.segment.get();
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = this.readByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String readUtf8(int length) {
+            if (length > this.bytes.length) {
+                this.bytes = new byte[Math.max(length, this.bytes.length * 2)];
+            }
+            int copied = 0;
+            while (copied < length) {
+                if (!this.segment.hasRemaining()) {
+                    this.seek(this.position());
+                }
+                int n = Math.min(length - copied, this.segment.remaining());
+                this.segment.get(this.bytes, copied, n);
+                copied += n;
+            }
+            return new String(this.bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 写入行缓存文件：行数据直接写入缓存文件，字典条目先写入临时文件，结束时追加在行数据之后。
+     * 只在一个线程中使用
+     */
+    static class Writer implements Closeable {
+        private final File cacheFile;
+        private final File dictionaryFile;
+        private final OutputStream out;
+        private final OutputStream dictionaryOut;
+        // 已写入缓存文件的字节数
+        private long position = 0;
+        // 已写入字典临时文件的字节数
+        private long dictionaryBytes = 0;
+        // 各字典条目在字典中的偏移
+        private long[] dictionaryOffsets = new long[1024];
+        private int dictionarySize = 0;
+        private long rowCount = 0;
+        private int lastSheetIndex = 0;
+        private int lastRowIndex = 0;
+        private boolean finished = false;
+
+        Writer(File cacheFile, File tempDir) throws IOException {
+            this.cacheFile = cacheFile;
+            this.dictionaryFile = File.createTempFile("row-cache-", ".dict", tempDir);
+            this.out = new BufferedOutputStream(new FileOutputStream(cacheFile), 64 * 1024);
+            this.dictionaryOut = new BufferedOutputStream(new FileOutputStream(this.dictionaryFile), 64 * 1024);
+            this.position += writeInt(this.out, MAGIC);
+            this.position += writeInt(this.out, VERSION);
+        }
+
+        /**
+         * 开始一行，之后写入size个单元格
+         */
+        void startRow(int sheetIndex, int rowIndex, int size) throws IOException {
+            if (sheetIndex != this.lastSheetIndex) {
+                this.lastSheetIndex = sheetIndex;
+                this.lastRowIndex = 0;
+            }
+            this.position += writeVarint(this.out, sheetIndex);
+            this.position += writeVarint(this.out, rowIndex - this.lastRowIndex);
+            this.position += writeVarint(this.out, size);
+            this.lastRowIndex = rowIndex;
+            this.rowCount++;
+        }
+
+        /**
+         * 写入文本单元格
+         */
+        void writeText(String text) throws IOException {
+            if (text.isEmpty()) {
+                this.out.write(0);
+                this.position++;
+                return;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            this.position += writeVarint(this.out, bytes.length << 1);
+            this.out.write(bytes);
+            this.position += bytes.length;
+        }
+
+        /**
+         * 写入引用字典条目的单元格
+         */
+        void writeReference(int id) throws IOException {
+            this.position += writeVarint(this.out, id << 1 | 1);
+        }
+
+        /**
+         * 加入字典
+         * @return 字典条目序号
+         */
+        int addDictionary(String text) throws IOException {
+            if (this.dictionarySize == this.dictionaryOffsets.length) {
+                this.dictionaryOffsets = Arrays.copyOf(this.dictionaryOffsets, this.dictionarySize * 2);
+            }
+            this.dictionaryOffsets[this.dictionarySize] = this.dictionaryBytes;
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            this.dictionaryBytes += writeVarint(this.dictionaryOut, bytes.length);
+            this.dictionaryOut.write(bytes);
+            this.dictionaryBytes += bytes.length;
+            return this.dictionarySize++;
+        }
+
+        long getRowCount() {
+            return this.rowCount;
+        }
+
+        /**
+         * 写入字典、字典索引和文件尾，完成缓存文件
+         */
+        void finish() throws IOException {
+            this.dictionaryOut.close();
+            long dictionaryOffset = this.position;
+            try (InputStream in = new FileInputStream(this.dictionaryFile)) {
+                IOUtils.copyLarge(in, this.out);
+            }
+            long indexOffset = dictionaryOffset + this.dictionaryBytes;
+            DataOutputStream data = new DataOutputStream(this.out);
+            for (int i = 0; i < this.dictionarySize; i++) {
+                data.writeLong(dictionaryOffset + this.dictionaryOffsets[i]);
+            }
+            data.writeLong(dictionaryOffset);
+            data.writeLong(indexOffset);
+            data.writeLong(this.rowCount);
+            data.writeInt(this.dictionarySize);
+            data.writeInt(MAGIC);
+            data.close();
+            this.finished = true;
+        }
+
+        /**
+         * 删除字典临时文件，未完成时删除缓存文件
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.dictionaryOut.close();
+                this.out.close();
+            } finally {
+                deleteQuietly(this.dictionaryFile);
+                if (!this.finished) {
+                    deleteQuietly(this.cacheFile);
+                }
+            }
+        }
+
+        private static int writeInt(OutputStream out, int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+            return 4;
+        }
+
+        private static int writeVarint(OutputStream out, int value) throws IOException {
+            int bytes = 1;
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+                bytes++;
+            }
+            out.write(value);
+            return bytes;
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        if (!file.delete() && file.exists()) {
+            log.debug("临时文件【{}】删除失败，将在JVM退出时删除", file.getAbsolutePath());
+            file.deleteOnExit();
+        }
+    }
+}
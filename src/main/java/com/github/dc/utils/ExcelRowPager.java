@@ -0,0 +1,383 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.ThreeConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ *     按行索引分页读取sheet页：创建时把sheet页XML解压到临时缓存文件，同时每隔N个row元素记录一次该行在文件中的偏移；
+ *     读取某个行范围时从不超过起始行的最近索引位置开始解析（sheetData之前的内容拼在前面，保证XML完整），读完结束行即停止，
+ *     每页耗时只与页大小和索引间隔有关，与页所在位置无关。
+ *     按位置读取缓存文件，可多线程并发读取不同的页。使用完必须关闭，关闭时删除缓存文件
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 22:10
+ * @see SAXExcelParser#pager(int)
+ */
+@Slf4j
+public class ExcelRowPager implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * sheet页XML缓存文件
+     */
+    private final File cacheFile;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    /**
+     * 从文件开头到sheetData开始标签结束的内容，每次读取时拼在前面
+     */
+    private final byte[] prefix;
+    /**
+     * 记录了偏移的行号，递增
+     */
+    private final int[] rowNums;
+    /**
+     * 对应行的row开始标签在缓存文件中的偏移
+     */
+    private final long[] offsets;
+    /**
+     * 数据起始行号
+     */
+    private final int firstRowNum;
+    /**
+     * 最后一行行号，没有行时为0
+     */
+    private final int lastRowNum;
+    /**
+     * 解析一段sheet页XML
+     */
+    private final SliceParser sliceParser;
+    /**
+     * 各页读取共用的资源（共享字符串表等），关闭时一起关闭，可为null
+     */
+    private final Closeable resources;
+    private volatile boolean closed = false;
+
+    /**
+     * 解析一段sheet页XML，只交付行号在[firstRow, lastRow]内的行
+     */
+    @FunctionalInterface
+    interface SliceParser {
+        void parse(InputStream sheetXml, int firstRow, int lastRow, ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception;
+    }
+
+    private ExcelRowPager(File cacheFile, byte[] prefix, int[] rowNums, long[] offsets, int firstRowNum, int lastRowNum,
+                          SliceParser sliceParser, Closeable resources) throws IOException {
+        this.cacheFile = cacheFile;
+        this.prefix = prefix;
+        this.rowNums = rowNums;
+        this.offsets = offsets;
+        this.firstRowNum = firstRowNum;
+        this.lastRowNum = lastRowNum;
+        this.sliceParser = sliceParser;
+        this.resources = resources;
+        this.raf = new RandomAccessFile(cacheFile, "r");
+        this.channel = this.raf.getChannel();
+    }
+
+    /**
+     * 把sheet页XML写入缓存文件并建立行索引
+     * @param sheetXml sheet页XML输入流，由调用方关闭
+     * @param tempDir 临时文件目录，为null时使用java.io.tmpdir
+     * @param everyRows 每隔多少个row元素记录一次偏移
+     * @param firstRowNum 数据起始行号，用于按页号计算行范围
+     * @param lastRowLimit 最多读到的行号
+     * @param sliceParser 解析一段sheet页XML
+     * @param resources 各页读取共用的资源，关闭时一起关闭，可为null
+     */
+    static ExcelRowPager build(InputStream sheetXml, File tempDir, int everyRows, int firstRowNum, int lastRowLimit,
+                               SliceParser sliceParser, Closeable resources) throws IOException {
+        File cacheFile = File.createTempFile("sheet-", ".xml", tempDir);
+        try {
+            RowScanner scanner = new RowScanner(everyRows);
+            try (OutputStream out = new FileOutputStream(cacheFile)) {
+                byte[] buf = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = sheetXml.read(buf)) != -1) {
+                    scanner.scan(buf, n);
+                    out.write(buf, 0, n);
+                }
+            }
+            if (scanner.prefixEnd < 0) {
+                throw new IllegalStateException("sheet页XML中没有sheetData");
+            }
+            byte[] prefix = new byte[(int) scanner.prefixEnd];
+            try (DataInputStream in = new DataInputStream(new FileInputStream(cacheFile))) {
+                in.readFully(prefix);
+            }
+            return new ExcelRowPager(cacheFile, prefix, Arrays.copyOf(scanner.rowNums, scanner.size), Arrays.copyOf(scanner.offsets, scanner.size),
+                    firstRowNum, Math.min(scanner.lastRowNum, lastRowLimit), sliceParser, resources);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(cacheFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 读取行号在[firstRow, lastRow]内的行，范围内的空行按读取设置补齐或跳过
+     * @param firstRow 起始行号（包含），从1开始
+     * @param lastRow 结束行号（包含）
+     * @param rowHandler 参数依次为：第几个sheet页（从1开始）、行号（从1开始）、行数据
+     */
+    public void read(int firstRow, int lastRow, ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+        if (firstRow < 1 || lastRow < firstRow) {
+            throw new IllegalArgumentException("行范围不正确：" + firstRow + "~" + lastRow);
+        }
+        if (this.rowNums.length == 0 || firstRow > this.lastRowNum) {
+            return;
+        }
+        try (InputStream is = this.openAt(firstRow)) {
+            this.sliceParser.parse(is, firstRow, lastRow, rowHandler);
+        }
+    }
+
+    /**
+     * 读取一页，从数据起始行开始按页大小分页
+     * @param pageNo 页号，从1开始
+     * @param pageSize 每页行数
+     * @return 该页各行数据，超出最后一页时为空
+     */
+    public List<List<String>> page(int pageNo, int pageSize) throws Exception {
+        if (pageNo < 1 || pageSize < 1) {
+            throw new IllegalArgumentException("页号和每页行数必须大于0");
+        }
+        long first = this.firstRowNum + (long) (pageNo - 1) * pageSize;
+        List<List<String>> rows = new ArrayList<>(pageSize);
+        if (first <= this.lastRowNum) {
+            this.read((int) first, (int) Math.min(first + pageSize - 1, this.lastRowNum), (sheetIndex, rowIndex, row) -> rows.add(row));
+        }
+        return rows;
+    }
+
+    /**
+     * 总页数
+     * @param pageSize 每页行数
+     */
+    public int getPageCount(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("每页行数必须大于0");
+        }
+        int rows = this.lastRowNum - this.firstRowNum + 1;
+        return rows <= 0 ? 0 : (rows - 1) / pageSize + 1;
+    }
+
+    /**
+     * 最后一行行号，没有行时为0
+     */
+    public int getLastRowNum() {
+        return this.lastRowNum;
+    }
+
+    /**
+     * 从不超过rowNum的最近索引位置开始读取的sheet页XML，前面拼上sheetData之前的内容
+     */
+    InputStream openAt(int rowNum) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("分页读取已关闭");
+        }
+        int i = Arrays.binarySearch(this.rowNums, rowNum);
+        if (i < 0) {
+            // 第一个大于rowNum的位置的前一个，rowNum在第一行之前时从第一行开始
+            i = Math.max(-i - 2, 0);
+        }
+        return new SequenceInputStream(new ByteArrayInputStream(this.prefix), new ChannelInputStream(this.channel, this.offsets[i]));
+    }
+
+    /**
+     * 删除缓存文件，关闭共用资源
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.raf.close();
+        } finally {
+            deleteQuietly(this.cacheFile);
+            if (this.resources != null) {
+                this.resources.close();
+            }
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        if (!file.delete() && file.exists()) {
+            log.debug("临时文件【{}】删除失败，将在JVM退出时删除", file.getAbsolutePath());
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 逐字节扫描sheet页XML（可分多段传入）：找到sheetData开始标签的结束位置，每隔everyRows个row开始标签记录一次行号和偏移。
+     * 单元格文本中的'<'已转义，标签之外不会出现'<'；标签内引号中的内容不作为标签结束
+     */
+    private static class RowScanner {
+        private final int everyRows;
+        private int[] rowNums = new int[1024];
+        private long[] offsets = new long[1024];
+        private int size = 0;
+        // 已扫描的字节数
+        private long position = 0;
+        // sheetData开始标签之后的位置，未找到时为-1
+        private long prefixEnd = -1;
+        // 已扫描的row元素个数
+        private long rows = 0;
+        private int lastRowNum = 0;
+        // 当前标签的内容（不含'<'和'>'），不在标签内时为-1
+        private int tagLength = -1;
+        private byte[] tag = new byte[256];
+        private long tagStart;
+        // 当前所在引号，0表示不在引号内
+        private byte quote = 0;
+
+        RowScanner(int everyRows) {
+            this.everyRows = everyRows;
+        }
+
+        void scan(byte[] buf, int length) {
+            for (int i = 0; i < length; i++, this.position++) {
+                byte b = buf[i];
+                if (this.tagLength < 0) {
+                    if (b == '<') {
+                        this.tagLength = 0;
+                        this.tagStart = this.position;
+                    }
+                    continue;
+                }
+                if (this.quote != 0) {
+                    if (b == this.quote) {
+                        this.quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    this.quote = b;
+                } else if (b == '>') {
+                    this.endTag();
+                    this.tagLength = -1;
+                    continue;
+                }
+                if (this.tagLength == this.tag.length) {
+                    this.tag = Arrays.copyOf(this.tag, this.tag.length * 2);
+                }
+                this.tag[this.tagLength++] = b;
+            }
+        }
+
+        private void endTag() {
+            if (this.prefixEnd < 0) {
+                if (isTag(this.tag, this.tagLength, "sheetData")) {
+                    this.prefixEnd = this.position + 1;
+                }
+                return;
+            }
+            if (!isTag(this.tag, this.tagLength, "row")) {
+                return;
+            }
+            // r属性可省略，省略时为上一行的下一行
+            int r = attributeInt(this.tag, this.tagLength, 'r');
+            this.lastRowNum = r > 0 ? r : this.lastRowNum + 1;
+            if (this.rows++ % this.everyRows == 0) {
+                if (this.size == this.rowNums.length) {
+                    this.rowNums = Arrays.copyOf(this.rowNums, this.size * 2);
+                    this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+                }
+                this.rowNums[this.size] = this.lastRowNum;
+                this.offsets[this.size] = this.tagStart;
+                this.size++;
+            }
+        }
+
+        /**
+         * 标签名是否为name（后面为空白、'/'或结束）
+         */
+        private static boolean isTag(byte[] tag, int length, String name) {
+            if (length < name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (tag[i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return length == name.length() || isSpace(tag[name.length()]) || tag[name.length()] == '/';
+        }
+
+        /**
+         * 取单字符属性名的非负整数属性值，没有该属性时为-1
+         */
+        private static int attributeInt(byte[] tag, int length, char name) {
+            for (int i = 1; i < length; i++) {
+                if (tag[i] != name || !isSpace(tag[i - 1])) {
+                    continue;
+                }
+                int j = i + 1;
+                while (j < length && isSpace(tag[j])) {
+                    j++;
+                }
+                if (j >= length || tag[j] != '=') {
+                    continue;
+                }
+                j++;
+                while (j < length && isSpace(tag[j])) {
+                    j++;
+                }
+                if (j >= length || (tag[j] != '"' && tag[j] != '\'')) {
+                    continue;
+                }
+                byte quote = tag[j++];
+                int value = 0;
+                for (; j < length && tag[j] != quote; j++) {
+                    value = value * 10 + (tag[j] - '0');
+                }
+                return value;
+            }
+            return -1;
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+
+    /**
+     * 从指定位置开始按位置读取文件通道，不改变通道的当前位置，多个流可并发读取同一通道
+     */
+    private static class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+
+        ChannelInputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = this.channel.read(ByteBuffer.wrap(b, off, len), this.position);
+            if (n > 0) {
+                this.position += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.ExcelWriteSetup;
+import com.github.dc.utils.pojo.ThreeConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * <p>
+ *     外部排序/去重：按一个或多个关键列对{@link SAXExcelParser}读出的行排序，数据量超过内存预算时分段排序后写入临时文件，
+ *     最后多路归并（优先队列），堆内存只与内存预算和归并路数有关，与行数无关。
+ *     <ul>
+ *         <li>结果确定：关键列相同的行按原来的位置（sheet页序号、行号）排列，与各行读出的先后无关，并行解析sheet页且不要求有序交付时也一样</li>
+ *         <li>去重：关键列相同的行只保留位置最前（sheet页序号、行号最小）的一行；未指定关键列时按整行比较</li>
+ *         <li>临时文件超过{@value #MAX_FAN_IN}个时先分组归并，每次归并同时打开的文件不超过该数</li>
+ *     </ul>
+ *     结果交给行处理（sheet页序号、行号为原来的位置），或直接写入{@link SAXExcelWriter}
+ * </p>
+ * <pre>
+ * ExcelSorter.start()
+ *         .from(SAXExcelParser.start().file(file).beginRowNum(1))
+ *         .key(3, true, true)
+ *         .keys(1)
+ *         .distinct()
+ *         .memoryBudget(256L &lt;&lt; 20)
+ *         .run((sheetIndex, rowIndex, row) -&gt; ...);
+ * </pre>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:55
+ */
+@Slf4j
+public class ExcelSorter {
+
+    /**
+     * 每次归并最多同时读取的临时文件数
+     */
+    private static final int MAX_FAN_IN = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 写入SAXExcelWriter时每批行数
+     */
+    private static final int WRITE_BATCH_SIZE = 1000;
+    /**
+     * 临时文件中一段的结束标记（写在sheet页序号的位置）
+     */
+    private static final int END_OF_RUN = -1;
+
+    /**
+     * 数据来源
+     */
+    private SAXExcelParser source;
+    /**
+     * 关键列，按优先级
+     */
+    private final List<Key> keys = new ArrayList<>();
+    /**
+     * 是否去重
+     */
+    private boolean distinct = false;
+    /**
+     * 内存预算（字节），内存中待排序的行估算超过该值时写入临时文件
+     */
+    private long memoryBudget = 64L << 20;
+    /**
+     * 临时文件目录，为null时使用java.io.tmpdir
+     */
+    private File tempDir;
+    /**
+     * 有数值关键列时，各行保存数值关键列的值
+     */
+    private int numericKeyCount = 0;
+
+    /**
+     * 关键列
+     */
+    private static class Key {
+        // 列号，从1开始
+        private final int column;
+        // 是否按数值比较，数值关键列在numbers中的位置，不是数值关键列时为-1
+        private final int numberIndex;
+        private final boolean descending;
+
+        Key(int column, int numberIndex, boolean descending) {
+            this.column = column;
+            this.numberIndex = numberIndex;
+            this.descending = descending;
+        }
+    }
+
+    /**
+     * 待排序的行
+     */
+    static class SortRow {
+        final int sheetIndex;
+        final int rowIndex;
+        final List<String> cells;
+        // 数值关键列的值，不是数值时为NaN
+        final double[] numbers;
+
+        SortRow(int sheetIndex, int rowIndex, List<String> cells, double[] numbers) {
+            this.sheetIndex = sheetIndex;
+            this.rowIndex = rowIndex;
+            this.cells = cells;
+            this.numbers = numbers;
+        }
+    }
+
+    /**
+     * 有序的行来源，next返回null表示结束
+     */
+    interface RowSource extends Closeable {
+        SortRow next() throws IOException;
+    }
+
+    private ExcelSorter() {
+    }
+
+    public static ExcelSorter start() {
+        return new ExcelSorter();
+    }
+
+    /**
+     * 数据来源，按其读取设置（sheet页、起始行、列投影、日期列等）读取
+     */
+    public ExcelSorter from(SAXExcelParser source) {
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * 按文本升序比较的关键列，可多次调用，先加入的优先
+     * @param columns 列号，从1开始
+     */
+    public ExcelSorter keys(int... columns) {
+        for (int column : columns) {
+            this.key(column, false, false);
+        }
+        return this;
+    }
+
+    /**
+     * 关键列，可多次调用，先加入的优先
+     * @param column 列号，从1开始
+     * @param numeric 是否按数值比较，不是数值的单元格排在数值之后、按文本比较，空单元格排在最前
+     * @param descending 是否降序
+     */
+    public ExcelSorter key(int column, boolean numeric, boolean descending) {
+        if (column < 1) {
+            throw new IllegalArgumentException("列号必须大于0");
+        }
+        this.keys.add(new Key(column, numeric ? this.numericKeyCount++ : -1, descending));
+        return this;
+    }
+
+    /**
+     * 去重：关键列相同的行只保留位置最前（sheet页序号、行号最小）的一行
+     */
+    public ExcelSorter distinct() {
+        this.distinct = true;
+        return this;
+    }
+
+    /**
+     * 内存预算，内存中待排序的行估算超过该值时排序后写入临时文件，默认64MB
+     * @param bytes 字节数
+     */
+    public ExcelSorter memoryBudget(long bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("内存预算必须大于0");
+        }
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    /**
+     * 临时文件目录，不设置时使用java.io.tmpdir
+     */
+    public ExcelSorter tempDir(File tempDir) {
+        this.tempDir = tempDir;
+        return this;
+    }
+
+    /**
+     * 排序后逐行回调
+     * @param rowHandler 参数依次为：原来的sheet页序号（从1开始）、原来的行号（从1开始）、行数据
+     * @return 输出的行数
+     */
+    public long run(ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+        try (RowSource sorted = this.sort()) {
+            SortRow row;
+            while ((row = sorted.next()) != null) {
+                rowHandler.accept(row.sheetIndex, row.rowIndex, row.cells);
+                rows++;
+            }
+        }
+        log.debug("排序输出{}行，耗时{}秒", rows, BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+        return rows;
+    }
+
+    /**
+     * 排序后写入Excel：按表头设置的列顺序号（从0开始）取行数据中对应的列（顺序号0为第1列）写入绑定的变量。
+     * 会把setup设置为分批写入。读取或写入失败时抛出异常
+     * @param writer 写入器，已设置sheet名称和输出流
+     * @param setup 写入设置
+     * @return 写入的行数
+     */
+    public long writeTo(SAXExcelWriter writer, ExcelWriteSetup setup) throws Exception {
+        setup.setBatchWrite(true);
+        long[] rows = {0};
+        Exception[] error = {null};
+        try (RowSource sorted = this.sort()) {
+            writer.setup(setup).write(batchNum -> {
+                List<Map<String, Object>> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+                try {
+                    SortRow row;
+                    while (batch.size() < WRITE_BATCH_SIZE && (row = sorted.next()) != null) {
+                        Map<String, Object> rowData = new HashMap<>();
+                        for (ExcelWriteSetup.HeaderCell headerCell : setup.getHeaderCell()) {
+                            int col = headerCell.getOrderSeq();
+                            rowData.put(headerCell.getVarName(), col < row.cells.size() ? row.cells.get(col) : null);
+                        }
+                        batch.add(rowData);
+                    }
+                } catch (Exception e) {
+                    // 记下原始异常，中止写入后抛出
+                    error[0] = e;
+                    throw new IllegalStateException("读取有序行异常", e);
+                }
+                rows[0] += batch.size();
+                return batch.isEmpty() ? null : batch;
+            });
+        } catch (Exception e) {
+            throw error[0] != null ? error[0] : e;
+        }
+        return rows[0];
+    }
+
+    /**
+     * 读取数据来源，分段排序写入临时文件，返回归并后的有序行，使用完关闭（删除临时文件）
+     */
+    RowSource sort() throws Exception {
+        if (this.source == null) {
+            throw new IllegalArgumentException("未设置数据来源");
+        }
+        Comparator<SortRow> keyComparator = this.keyComparator();
+        // 关键列相同时按原位置，行的先后完全确定，与回调的先后无关
+        Comparator<SortRow> comparator = keyComparator.thenComparing(ExcelSorter::comparePosition);
+        List<File> runs = new ArrayList<>();
+        List<SortRow> buffer = new ArrayList<>();
+        long[] bufferBytes = {0};
+        try {
+            // 并行解析sheet页且不要求有序交付时会并发回调，各行进入buffer的先后不确定
+            this.source.run((sheetIndex, rowIndex, row) -> {
+                SortRow sortRow = this.toSortRow(sheetIndex, rowIndex, row);
+                synchronized (buffer) {
+                    buffer.add(sortRow);
+                    bufferBytes[0] += estimate(row);
+                    if (bufferBytes[0] > this.memoryBudget) {
+                        try {
+                            runs.add(this.spill(buffer, comparator, keyComparator));
+                        } catch (IOException e) {
+                            throw new IllegalStateException("写入排序临时文件失败", e);
+                        }
+                        buffer.clear();
+                        bufferBytes[0] = 0;
+                    }
+                }
+            });
+            buffer.sort(comparator);
+            if (runs.isEmpty()) {
+                RowSource inMemory = new ListSource(buffer);
+                return this.distinct ? new DistinctSource(inMemory, keyComparator) : inMemory;
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(this.spill(buffer, comparator, keyComparator));
+                buffer.clear();
+            }
+            log.debug("排序数据超过内存预算，分{}段写入临时文件", runs.size());
+            // 分组归并，直到可以一次归并
+            while (runs.size() > MAX_FAN_IN) {
+                List<File> merged = new ArrayList<>();
+                try {
+                    for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                        List<File> group = runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size()));
+                        try (RowSource groupSource = this.merge(group, comparator, keyComparator)) {
+                            merged.add(this.write(groupSource));
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // 本轮已归并出的文件还不在runs中，由这里删除
+                    merged.forEach(ExcelSorter::deleteQuietly);
+                    throw e;
+                }
+                runs.forEach(ExcelSorter::deleteQuietly);
+                runs.clear();
+                runs.addAll(merged);
+            }
+            RowSource merged = this.merge(runs, comparator, keyComparator);
+            List<File> files = new ArrayList<>(runs);
+            runs.clear();
+            return new RowSource() {
+                @Override
+                public SortRow next() throws IOException {
+                    return merged.next();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        merged.close();
+                    } finally {
+                        files.forEach(ExcelSorter::deleteQuietly);
+                    }
+                }
+            };
+        } finally {
+            runs.forEach(ExcelSorter::deleteQuietly);
+        }
+    }
+
+    /**
+     * 排序后写入临时文件，去重时只写入每组关键列相同的第一行
+     */
+    private File spill(List<SortRow> buffer, Comparator<SortRow> comparator, Comparator<SortRow> keyComparator) throws IOException {
+        buffer.sort(comparator);
+        RowSource sorted = new ListSource(buffer);
+        return this.write(this.distinct ? new DistinctSource(sorted, keyComparator) : sorted);
+    }
+
+    /**
+     * 写入一段临时文件
+     */
+    private File write(RowSource sorted) throws IOException {
+        File run = File.createTempFile("sort-", ".run", this.tempDir);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE))) {
+            SortRow row;
+            while ((row = sorted.next()) != null) {
+                out.writeInt(row.sheetIndex);
+                out.writeInt(row.rowIndex);
+                out.writeInt(row.cells.size());
+                for (String cell : row.cells) {
+                    byte[] bytes = cell.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            out.writeInt(END_OF_RUN);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(run);
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * 多路归并，各段已按关键列和原位置排序
+     */
+    private RowSource merge(List<File> runs, Comparator<SortRow> comparator, Comparator<SortRow> keyComparator) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (File run : runs) {
+                readers.add(new RunReader(run));
+            }
+        } catch (IOException e) {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            throw e;
+        }
+        RowSource merged = new MergeSource(readers, comparator);
+        return this.distinct ? new DistinctSource(merged, keyComparator) : merged;
+    }
+
+    private SortRow toSortRow(int sheetIndex, int rowIndex, List<String> cells) {
+        double[] numbers = null;
+        if (this.numericKeyCount > 0) {
+            numbers = new double[this.numericKeyCount];
+            for (Key key : this.keys) {
+                if (key.numberIndex >= 0) {
+                    numbers[key.numberIndex] = toNumber(cell(cells, key.column));
+                }
+            }
+        }
+        return new SortRow(sheetIndex, rowIndex, cells, numbers);
+    }
+
+    /**
+     * 只比较关键列，用于去重和比对配对
+     */
+    Comparator<SortRow> keyComparator() {
+        if (this.keys.isEmpty()) {
+            // 未指定关键列时按整行比较，缺少的列视为空单元格
+            return (a, b) -> {
+                int size = Math.max(a.cells.size(), b.cells.size());
+                for (int col = 1; col <= size; col++) {
+                    int c = cell(a.cells, col).compareTo(cell(b.cells, col));
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            };
+        }
+        Key[] keyArray = this.keys.toArray(new Key[0]);
+        return (a, b) -> {
+            for (Key key : keyArray) {
+                int c = compare(key, a, b);
+                if (c != 0) {
+                    return key.descending ? -c : c;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * 比较一个关键列：空单元格最前；数值关键列中数值在前、按数值比较，不是数值的在后、按文本比较
+     */
+    private static int compare(Key key, SortRow a, SortRow b) {
+        String x = cell(a.cells, key.column);
+        String y = cell(b.cells, key.column);
+        if (x.isEmpty() || y.isEmpty()) {
+            return Boolean.compare(!x.isEmpty(), !y.isEmpty());
+        }
+        if (key.numberIndex >= 0) {
+            double m = a.numbers[key.numberIndex];
+            double n = b.numbers[key.numberIndex];
+            boolean mIsNumber = !Double.isNaN(m);
+            boolean nIsNumber = !Double.isNaN(n);
+            if (mIsNumber && nIsNumber) {
+                return Double.compare(m, n);
+            }
+            if (mIsNumber != nIsNumber) {
+                return mIsNumber ? -1 : 1;
+            }
+        }
+        return x.compareTo(y);
+    }
+
+    /**
+     * 比较原来的位置：sheet页序号、行号
+     */
+    private static int comparePosition(SortRow a, SortRow b) {
+        int c = Integer.compare(a.sheetIndex, b.sheetIndex);
+        return c != 0 ? c : Integer.compare(a.rowIndex, b.rowIndex);
+    }
+
+    static String cell(List<String> cells, int column) {
+        if (column > cells.size()) {
+            return "";
+        }
+        String cell = cells.get(column - 1);
+        return cell == null ? "" : cell;
+    }
+
+    private static double toNumber(String s) {
+        if (s.isEmpty()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * 估算一行占用的堆内存：行对象、列表，每个字符串的对象头和字符
+     */
+    private static long estimate(List<String> row) {
+        long bytes = 96 + 8L * row.size();
+        for (String cell : row) {
+            bytes += 48 + 2L * cell.length();
+        }
+        return bytes;
+    }
+
+    private static void deleteQuietly(File file) {
+        if (!file.delete() && file.exists()) {
+            log.debug("临时文件【{}】删除失败，将在JVM退出时删除", file.getAbsolutePath());
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 内存中已排序的行
+     */
+    private static class ListSource implements RowSource {
+        private final Iterator<SortRow> iterator;
+
+        ListSource(List<SortRow> rows) {
+            this.iterator = rows.iterator();
+        }
+
+        @Override
+        public SortRow next() {
+            return this.iterator.hasNext() ? this.iterator.next() : null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 读取一段临时文件
+     */
+    private class RunReader implements RowSource {
+        private final DataInputStream in;
+
+        RunReader(File run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), BUFFER_SIZE));
+        }
+
+        @Override
+        public SortRow next() throws IOException {
+            int sheetIndex = this.in.readInt();
+            if (sheetIndex == END_OF_RUN) {
+                return null;
+            }
+            int rowIndex = this.in.readInt();
+            int size = this.in.readInt();
+            List<String> cells = new ArrayList<>(Math.max(size, 10));
+            for (int i = 0; i < size; i++) {
+                byte[] bytes = new byte[this.in.readInt()];
+                this.in.readFully(bytes);
+                cells.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return toSortRow(sheetIndex, rowIndex, cells);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    /**
+     * 多路归并：优先队列中是各路的当前行，比较相同时按路的顺序
+     */
+    private static class MergeSource implements RowSource {
+        private final List<? extends RowSource> sources;
+        private final PriorityQueue<Head> heads;
+
+        private static class Head {
+            private final int index;
+            private SortRow row;
+
+            Head(int index, SortRow row) {
+                this.index = index;
+                this.row = row;
+            }
+        }
+
+        MergeSource(List<? extends RowSource> sources, Comparator<SortRow> comparator) throws IOException {
+            this.sources = sources;
+            this.heads = new PriorityQueue<>(Math.max(sources.size(), 1), (a, b) -> {
+                int c = comparator.compare(a.row, b.row);
+                return c != 0 ? c : Integer.compare(a.index, b.index);
+            });
+            try {
+                for (int i = 0; i < sources.size(); i++) {
+                    SortRow row = sources.get(i).next();
+                    if (row != null) {
+                        this.heads.add(new Head(i, row));
+                    }
+                }
+            } catch (IOException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public SortRow next() throws IOException {
+            Head head = this.heads.poll();
+            if (head == null) {
+                return null;
+            }
+            SortRow row = head.row;
+            head.row = this.sources.get(head.index).next();
+            if (head.row != null) {
+                this.heads.add(head);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+            for (RowSource source : this.sources) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * 去重：有序的行中关键列与上一行相同的跳过
+     */
+    private static class DistinctSource implements RowSource {
+        private final RowSource sorted;
+        private final Comparator<SortRow> comparator;
+        private SortRow last;
+
+        DistinctSource(RowSource sorted, Comparator<SortRow> comparator) {
+            this.sorted = sorted;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public SortRow next() throws IOException {
+            SortRow row;
+            while ((row = this.sorted.next()) != null) {
+                if (this.last == null || this.comparator.compare(this.last, row) != 0) {
+                    this.last = row;
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.sorted.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.Checkpoint;
+import com.github.dc.utils.pojo.CheckpointStore;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * <p>
+ *     断点保存在本地文件：先写临时文件并刷盘，再替换原文件，进程中途退出也不会留下不完整的断点
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 20:45
+ */
+public class FileCheckpointStore implements CheckpointStore {
+    private final Path file;
+
+    public FileCheckpointStore(File file) {
+        this.file = file.toPath();
+    }
+
+    @Override
+    public Checkpoint load() throws IOException {
+        if (!Files.exists(this.file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(this.file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            return new Checkpoint(properties.getProperty("fingerprint"),
+                    Integer.parseInt(properties.getProperty("sheetIndex")),
+                    Integer.parseInt(properties.getProperty("rowIndex")),
+                    Long.parseLong(properties.getProperty("rows")));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("断点文件内容不完整：" + this.file, e);
+        }
+    }
+
+    @Override
+    public void save(Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fingerprint", checkpoint.getFingerprint());
+        properties.setProperty("sheetIndex", String.valueOf(checkpoint.getSheetIndex()));
+        properties.setProperty("rowIndex", String.valueOf(checkpoint.getRowIndex()));
+        properties.setProperty("rows", String.valueOf(checkpoint.getRows()));
+        Path temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            properties.store(new OutputStreamWriter(out, StandardCharsets.UTF_8), null);
+            out.getFD().sync();
+        }
+        try {
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+}
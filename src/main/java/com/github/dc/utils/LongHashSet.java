@@ -0,0 +1,118 @@
+package com.github.dc.utils;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     long集合：开放寻址、线性探测，元素直接存放在long[]中，每个元素约占16字节（负载不超过一半），没有装箱和节点对象。
+ *     用于按64位哈希值判重，代替保存所有原值的HashSet&lt;String&gt;。非线程安全
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:15
+ */
+class LongHashSet {
+
+    /**
+     * 表，0表示空位，元素0单独记录
+     */
+    private long[] table;
+    private int mask;
+    private int size = 0;
+    private boolean hasZero = false;
+
+    LongHashSet() {
+        this(16);
+    }
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 加入元素
+     * @return 是否为新元素，已存在时为false
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            boolean added = !this.hasZero;
+            this.hasZero = true;
+            return added;
+        }
+        int slot = mix(value) & this.mask;
+        long current;
+        while ((current = this.table[slot]) != 0) {
+            if (current == value) {
+                return false;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.table[slot] = value;
+        if (++this.size * 2 > this.table.length) {
+            this.grow();
+        }
+        return true;
+    }
+
+    boolean contains(long value) {
+        if (value == 0) {
+            return this.hasZero;
+        }
+        int slot = mix(value) & this.mask;
+        long current;
+        while ((current = this.table[slot]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return this.size + (this.hasZero ? 1 : 0);
+    }
+
+    void clear() {
+        Arrays.fill(this.table, 0L);
+        this.size = 0;
+        this.hasZero = false;
+    }
+
+    private void grow() {
+        long[] old = this.table;
+        this.table = new long[old.length * 2];
+        this.mask = this.table.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = mix(value) & this.mask;
+                while (this.table[slot] != 0) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.table[slot] = value;
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 字符串的64位哈希（FNV-1a后再混合），不同字符串哈希相同的概率约为 n²/2^65，百万级数据可忽略
+     */
+    static long hash(CharSequence s) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.dc.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * <p>
+ *     基于内存映射文件的共享字符串表（SST），用于替代一次性把所有字符串加载进堆内存的{@link org.apache.poi.xssf.model.SharedStringsTable}
+ *     打开时流式读取一次sharedStrings.xml，把每个字符串按UTF-8写入数据文件，把各字符串的起始偏移写入索引文件，
+ *     之后通过内存映射读取：{@link #getEntryAt(int)} 为O(1)，堆内存只占用当次返回的字符串。
+ *     数据和索引文件为临时文件，{@link #close()}时删除。只读，可多线程并发读取
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 10:20
+ */
+@Slf4j
+public class MappedSharedStringsTable implements Closeable {
+
+    /**
+     * 数据文件每段映射的大小（1GB），单个MappedByteBuffer不能超过2GB
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * 数据文件
+     */
+    private final File dataFile;
+    /**
+     * 索引文件
+     */
+    private final File indexFile;
+    /**
+     * 数据文件分段映射
+     */
+    private final MappedByteBuffer[] segments;
+    /**
+     * 索引映射，第i个long为第i个字符串的起始偏移，共uniqueCount + 1个
+     */
+    private final MappedByteBuffer index;
+    /**
+     * 字符串个数
+     */
+    private final int uniqueCount;
+    /**
+     * 数据文件大小（字节）
+     */
+    private final long dataSize;
+
+    private MappedSharedStringsTable(File dataFile, File indexFile, int uniqueCount) throws IOException {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.uniqueCount = uniqueCount;
+        this.dataSize = dataFile.length();
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r"); FileChannel channel = raf.getChannel()) {
+            this.index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r"); FileChannel channel = raf.getChannel()) {
+            int segmentCount = (int) ((this.dataSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, this.dataSize - position));
+            }
+        }
+    }
+
+    /**
+     * 从工作簿中读取sharedStrings.xml并生成映射表，工作簿没有共享字符串表时返回空表
+     * @param pkg 工作簿
+     * @param tempDir 临时文件目录，为null时使用java.io.tmpdir
+     */
+    public static MappedSharedStringsTable open(OPCPackage pkg, File tempDir) throws Exception {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return build(null, tempDir);
+        }
+        try (InputStream is = parts.get(0).getInputStream()) {
+            return build(is, tempDir);
+        }
+    }
+
+    /**
+     * 流式读取sharedStrings.xml生成映射表
+     * @param sharedStringsXml sharedStrings.xml输入流，为null时生成空表
+     * @param tempDir 临时文件目录，为null时使用java.io.tmpdir
+     */
+    public static MappedSharedStringsTable build(InputStream sharedStringsXml, File tempDir) throws Exception {
+        File dataFile = File.createTempFile("sst-", ".dat", tempDir);
+        File indexFile = File.createTempFile("sst-", ".idx", tempDir);
+        try {
+            int uniqueCount = 0;
+            try (OutputStream data = new BufferedOutputStream(new FileOutputStream(dataFile), 64 * 1024);
+                 DataOutputStream idx = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), 64 * 1024))) {
+                idx.writeLong(0L);
+                if (sharedStringsXml != null) {
+                    SharedStringsHandler handler = new SharedStringsHandler(data, idx);
+                    SAXParserFactory.newInstance().newSAXParser().parse(sharedStringsXml, handler);
+                    uniqueCount = handler.count;
+                }
+            }
+            return new MappedSharedStringsTable(dataFile, indexFile, uniqueCount);
+        } catch (Exception e) {
+            deleteQuietly(dataFile);
+            deleteQuietly(indexFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取第idx个共享字符串
+     * @param idx SST索引，从0开始
+     */
+    public String getEntryAt(int idx) {
+        if (idx < 0 || idx >= this.uniqueCount) {
+            throw new IndexOutOfBoundsException("SST索引越界：" + idx + "，共" + this.uniqueCount + "个");
+        }
+        long start = this.index.getLong(idx << 3);
+        int length = (int) (this.index.getLong((idx + 1) << 3) - start);
+        byte[] bytes = new byte[length];
+        // 整段复制，只有跨越1GB分段边界的字符串才分两次复制；每次复制使用副本，多线程读取时互不影响位置
+        int copied = 0;
+        while (copied < length) {
+            long position = start + copied;
+            ByteBuffer segment = this.segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+            segment.position((int) (position & SEGMENT_MASK));
+            int n = Math.min(length - copied, segment.remaining());
+            segment.get(bytes, copied, n);
+            copied += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 字符串个数
+     */
+    public int getUniqueCount() {
+        return this.uniqueCount;
+    }
+
+    /**
+     * 映射的数据和索引总字节数（堆外）
+     */
+    public long getMappedBytes() {
+        return this.dataSize + this.index.capacity();
+    }
+
+    /**
+     * 删除临时文件。Java 8无法主动解除映射，Windows下文件可能要等映射被回收后才能删除，此时退出JVM时删除
+     */
+    @Override
+    public void close() {
+        deleteQuietly(this.dataFile);
+        deleteQuietly(this.indexFile);
+    }
+
+    private static void deleteQuietly(File file) {
+        if (!file.delete() && file.exists()) {
+            log.debug("临时文件【{}】删除失败，将在JVM退出时删除", file.getAbsolutePath());
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * sharedStrings.xml解析器：拼接每个si下（不含注音rPh）所有t的文本，写入数据文件和索引文件
+     */
+    private static class SharedStringsHandler extends DefaultHandler {
+        private final OutputStream data;
+        private final DataOutputStream idx;
+        private final StringBuilder text = new StringBuilder();
+        private long offset = 0;
+        private int count = 0;
+        // 是否在t标签内
+        private boolean inText = false;
+        // 是否在注音rPh标签内
+        private boolean inPhonetic = false;
+
+        SharedStringsHandler(OutputStream data, DataOutputStream idx) {
+            this.data = data;
+            this.idx = idx;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (qName.equals("si")) {
+                text.setLength(0);
+            } else if (qName.equals("t")) {
+                inText = !inPhonetic;
+            } else if (qName.equals("rPh")) {
+                inPhonetic = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (qName.equals("t")) {
+                inText = false;
+            } else if (qName.equals("rPh")) {
+                inPhonetic = false;
+            } else if (qName.equals("si")) {
+                try {
+                    byte[] bytes = SAXExcelParser.utfDecode(text).getBytes(StandardCharsets.UTF_8);
+                    data.write(bytes);
+                    offset += bytes.length;
+                    idx.writeLong(offset);
+                    count++;
+                } catch (IOException e) {
+                    throw new SAXException("写入共享字符串临时文件失败", e);
+                }
+            }
+        }
+    }
+}
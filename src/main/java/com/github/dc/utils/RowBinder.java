@@ -0,0 +1,283 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.ExcelColumn;
+import com.github.dc.utils.pojo.RowView;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * <p>
+ *     行数据绑定到对象：每个类只解析一次注解，生成构造器、各字段的setter（MethodHandle）和类型转换器，
+ *     绑定每行时只按列位置取值、转换、写入，不再反射查找
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 18:50
+ */
+class RowBinder<T> {
+
+    /**
+     * 按类缓存
+     */
+    private static final ClassValue<RowBinder<?>> BINDERS = new ClassValue<RowBinder<?>>() {
+        @Override
+        protected RowBinder<?> computeValue(Class<?> type) {
+            return new RowBinder<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    /**
+     * 无参构造器，类型为 ()Object
+     */
+    private final MethodHandle constructor;
+    /**
+     * 投影的列号，按列标题绑定的位置为0
+     */
+    private final int[] columns;
+    /**
+     * 投影的列标题，按列号绑定的位置为null
+     */
+    private final String[] columnNames;
+    /**
+     * 各字段的绑定
+     */
+    private final FieldBinding[] bindings;
+
+    /**
+     * 取类的绑定
+     * @param type 绑定的类，需有无参构造器，绑定的字段需有@ExcelColumn注解
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowBinder<T> of(Class<T> type) {
+        return (RowBinder<T>) BINDERS.get(type);
+    }
+
+    private RowBinder(Class<T> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("类" + type.getName() + "没有可用的无参构造器", e);
+        }
+        // 父类字段在前
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            fields.addAll(0, Arrays.asList(c.getDeclaredFields()));
+        }
+        // 列标题或列号 -> 在投影中的位置（从1开始），多个字段绑定同一列时共用
+        Map<Object, Integer> positions = new LinkedHashMap<>();
+        List<FieldBinding> bindings = new ArrayList<>();
+        for (Field field : fields) {
+            ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+            if (column == null || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Object key = column.index() > 0 ? (Object) column.index() : (column.value().isEmpty() ? field.getName() : column.value());
+            Integer position = positions.get(key);
+            if (position == null) {
+                position = positions.size() + 1;
+                positions.put(key, position);
+            }
+            bindings.add(new FieldBinding(field, position, setter(lookup, field), converter(field, column)));
+        }
+        if (bindings.isEmpty()) {
+            throw new IllegalArgumentException("类" + type.getName() + "没有@ExcelColumn注解的字段");
+        }
+        this.bindings = bindings.toArray(new FieldBinding[0]);
+        this.columns = new int[positions.size()];
+        this.columnNames = new String[positions.size()];
+        for (Map.Entry<Object, Integer> entry : positions.entrySet()) {
+            int i = entry.getValue() - 1;
+            if (entry.getKey() instanceof Integer) {
+                this.columns[i] = (Integer) entry.getKey();
+            } else {
+                this.columnNames[i] = (String) entry.getKey();
+            }
+        }
+    }
+
+    /**
+     * 投影的列号，按列标题绑定的位置为0
+     */
+    int[] getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * 投影的列标题，按列号绑定的位置为null；全部按列号绑定时返回null，不需要标题行
+     */
+    String[] getColumnNames() {
+        for (String columnName : this.columnNames) {
+            if (columnName != null) {
+                return this.columnNames;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把一行（已按{@link #getColumns()}、{@link #getColumnNames()}投影）绑定到新对象
+     * @param row 行数据
+     * @return 绑定后的对象
+     */
+    @SuppressWarnings("unchecked")
+    T bind(RowView row) {
+        T target;
+        try {
+            target = (T) (Object) this.constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建" + this.type.getName() + "失败", e);
+        }
+        for (FieldBinding binding : this.bindings) {
+            if (row.isBlank(binding.position)) {
+                continue;
+            }
+            Object value;
+            try {
+                value = binding.converter.convert(row, binding.position);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("第" + row.getSheetIndex() + "个sheet页第" + row.getRowIndex() + "行的值【"
+                        + row.getString(binding.position) + "】无法转换为字段" + binding.field.getName() + "（" + binding.field.getType().getSimpleName() + "）", e);
+            }
+            try {
+                binding.setter.invokeExact((Object) target, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("设置字段" + binding.field.getName() + "失败", e);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 字段setter，类型为 (Object, Object)void：优先使用public的setXxx方法，没有时直接写字段
+     */
+    private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) {
+        String name = field.getName();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        MethodHandle handle;
+        try {
+            try {
+                Method method = field.getDeclaringClass().getMethod(setterName, field.getType());
+                handle = lookup.unreflect(method);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                field.setAccessible(true);
+                handle = lookup.unreflectSetter(field);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("字段" + name + "无法写入", e);
+        }
+        return handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    /**
+     * 按字段类型选择转换器
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter converter(Field field, ExcelColumn column) {
+        Class<?> type = field.getType();
+        DateTimeFormatter formatter = column.format().isEmpty() ? null : DateTimeFormatter.ofPattern(column.format());
+        if (type == String.class) {
+            return RowView::getString;
+        }
+        if (type == int.class || type == Integer.class) {
+            return (row, col) -> Math.toIntExact(row.getLong(col));
+        }
+        if (type == long.class || type == Long.class) {
+            return RowView::getLong;
+        }
+        if (type == double.class || type == Double.class) {
+            return RowView::getDouble;
+        }
+        if (type == float.class || type == Float.class) {
+            return (row, col) -> (float) row.getDouble(col);
+        }
+        if (type == short.class || type == Short.class) {
+            return (row, col) -> row.getBigDecimal(col).shortValueExact();
+        }
+        if (type == byte.class || type == Byte.class) {
+            return (row, col) -> row.getBigDecimal(col).byteValueExact();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return (row, col) -> {
+                String value = row.getString(col).trim();
+                return "1".equals(value) || "true".equalsIgnoreCase(value) || "是".equals(value);
+            };
+        }
+        if (type == BigDecimal.class) {
+            return RowView::getBigDecimal;
+        }
+        if (type == BigInteger.class) {
+            return (row, col) -> row.getBigDecimal(col).toBigIntegerExact();
+        }
+        if (type == LocalDateTime.class) {
+            return (row, col) -> row.getLocalDateTime(col, formatter);
+        }
+        if (type == LocalDate.class) {
+            return (row, col) -> row.getLocalDateTime(col, formatter).toLocalDate();
+        }
+        if (type == Date.class) {
+            return (row, col) -> Date.from(row.getLocalDateTime(col, formatter).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (type.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(constant.toString(), constant);
+            }
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum) constant).name(), constant);
+            }
+            return (row, col) -> {
+                String value = row.getString(col).trim();
+                Object constant = constants.get(value);
+                if (constant == null) {
+                    throw new IllegalArgumentException("没有对应的枚举值：" + value);
+                }
+                return constant;
+            };
+        }
+        throw new IllegalArgumentException("字段" + field.getName() + "的类型" + type.getName() + "不支持绑定");
+    }
+
+    /**
+     * 单元格转换为字段值
+     */
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(RowView row, int col);
+    }
+
+    /**
+     * 字段绑定
+     */
+    private static class FieldBinding {
+        private final Field field;
+        // 在投影中的位置（从1开始）
+        private final int position;
+        private final MethodHandle setter;
+        private final Converter converter;
+
+        FieldBinding(Field field, int position, MethodHandle setter, Converter converter) {
+            this.field = field;
+            this.position = position;
+            this.setter = setter;
+            this.converter = converter;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.RowView;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     拉取式逐行读取：后台线程解析，解析出的行放入容量很小的预读缓冲，调用方取一行才继续解析，
+ *     只需要前N行时不会解析整个文件。
+ *     {@link #close()}立即关闭解析线程打开的文件并停止解析，使用完（包括提前结束）必须关闭，建议使用try-with-resources。
+ *     每行都是独立的{@link RowView}（共享字符串已取值），可以保留使用
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 16:20
+ */
+@Slf4j
+public class RowIterator implements Iterator<RowView>, Closeable {
+
+    /**
+     * 预读行数
+     */
+    private static final int READ_AHEAD = 256;
+    /**
+     * 解析结束标记
+     */
+    private static final Object END = new Object();
+
+    /**
+     * 预读缓冲，元素为RowView、END或解析异常
+     */
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(READ_AHEAD);
+    /**
+     * 解析线程
+     */
+    private final Thread parseThread;
+    /**
+     * 解析线程打开的文件
+     */
+    private final SourceHandle source = new SourceHandle();
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed = false;
+    /**
+     * 已取出待返回的下一个元素
+     */
+    private Object next;
+
+    /**
+     * 解析任务：解析文件并把每一行交给sink
+     */
+    @FunctionalInterface
+    interface ParseTask {
+        void parse(Consumer<RowView> sink, SourceHandle source) throws Exception;
+    }
+
+    /**
+     * 解析线程打开的文件（工作簿）：解析线程打开后登记、结束时关闭；
+     * 读取关闭时由关闭的线程直接关闭，正在读取文件的解析线程随即因读取失败而中止。保证只关闭一次
+     */
+    static class SourceHandle {
+        private boolean closed = false;
+        private Closeable resource;
+
+        /**
+         * 登记已打开的文件，读取已关闭时立即关闭并中止解析
+         */
+        synchronized void opened(Closeable resource) throws IOException {
+            if (this.closed) {
+                resource.close();
+                throw new CancellationException("读取已关闭");
+            }
+            this.resource = resource;
+        }
+
+        /**
+         * 解析结束时关闭文件，已被关闭读取的线程关闭时不再关闭
+         */
+        synchronized void release(Closeable resource) throws IOException {
+            if (this.resource == resource) {
+                this.resource = null;
+                resource.close();
+            }
+        }
+
+        synchronized boolean isClosed() {
+            return this.closed;
+        }
+
+        /**
+         * 读取已关闭时中止解析，用于打开文件、加载共享字符串表和样式等不交付行的阶段之间
+         */
+        void checkOpen() {
+            if (this.isClosed()) {
+                throw new CancellationException("读取已关闭");
+            }
+        }
+
+        private synchronized void close() {
+            this.closed = true;
+            if (this.resource != null) {
+                try {
+                    this.resource.close();
+                } catch (IOException e) {
+                    log.warn("关闭Excel文件异常", e);
+                }
+                this.resource = null;
+            }
+        }
+    }
+
+    RowIterator(ParseTask task) {
+        this.parseThread = new Thread(() -> {
+            Object last = END;
+            try {
+                task.parse(this::put, this.source);
+            } catch (Exception e) {
+                last = e;
+            } catch (Error e) {
+                last = new IllegalStateException("excel读取异常", e);
+            }
+            try {
+                this.put(last);
+            } catch (CancellationException e) {
+                // 已关闭，不再需要结束标记
+            }
+        }, "sax-excel-row-iterator");
+        this.parseThread.setDaemon(true);
+        this.parseThread.start();
+    }
+
+    /**
+     * 解析线程放入缓冲，缓冲满时等待；已关闭时中止解析
+     */
+    private void put(Object e) {
+        try {
+            while (!this.queue.offer(e, 100, TimeUnit.MILLISECONDS)) {
+                if (this.closed) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("解析已取消");
+        }
+        if (this.closed) {
+            throw new CancellationException("读取已关闭");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            if (this.closed) {
+                return false;
+            }
+            try {
+                this.next = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("读取已取消");
+            }
+        }
+        if (this.next == END) {
+            return false;
+        }
+        if (this.next instanceof Exception) {
+            Exception e = (Exception) this.next;
+            this.next = END;
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new IllegalStateException("excel读取异常", e);
+        }
+        return true;
+    }
+
+    @Override
+    public RowView next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RowView row = (RowView) this.next;
+        this.next = null;
+        return row;
+    }
+
+    /**
+     * 停止解析：关闭解析线程打开的文件并中断解析线程，等待解析线程结束。
+     * 解析线程在加载共享字符串表等不响应中断的阶段时，因文件已关闭读取失败而中止；还未打开文件时，打开后立即关闭并中止
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.next = END;
+        // 清空缓冲、关闭文件并中断，解析线程不再阻塞，在下一次读取文件或放入时中止
+        this.queue.clear();
+        this.source.close();
+        this.parseThread.interrupt();
+        try {
+            this.parseThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("等待Excel解析线程结束时被中断");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.Three;
+import com.github.dc.utils.pojo.ThreeConsumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ *     行处理流水线：解析线程把解析好的行放入有界环形缓冲（ArrayBlockingQueue），N个消费线程从缓冲取出并执行rowHandler，
+ *     使XML解码与耗时的行处理（查库、校验等）重叠执行。
+ *     缓冲满时解析线程阻塞（背压）；任一消费线程中rowHandler抛出异常后，流水线停止，解析线程在下一次放入时中止，
+ *     {@link #finish()}抛出该异常。
+ *     注：消费线程大于1时行的处理顺序不确定，rowHandler需线程安全
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 9:30
+ */
+class RowPipeline<T> implements ThreeConsumer<Integer, Integer, T> {
+
+    /**
+     * 结束标记，每个消费线程取到一个即退出
+     */
+    private final Three<Integer, Integer, T> end = new Three<>(-1, -1, null);
+    /**
+     * 有界环形缓冲
+     */
+    private final BlockingQueue<Three<Integer, Integer, T>> queue;
+    /**
+     * 消费线程池
+     */
+    private final ExecutorService pool;
+    /**
+     * 消费线程
+     */
+    private final List<Future<?>> consumers;
+    /**
+     * 第一个rowHandler异常
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    RowPipeline(ThreeConsumer<Integer, Integer, T> rowHandler, int threads, int queueDepth) {
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.pool = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.consumers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            this.consumers.add(this.pool.submit(() -> {
+                try {
+                    Three<Integer, Integer, T> rowData;
+                    while ((rowData = this.queue.take()) != this.end && this.failure.get() == null) {
+                        rowHandler.accept(rowData.getFirst(), rowData.getSecond(), rowData.getThree());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    this.failure.compareAndSet(null, e);
+                }
+            }));
+        }
+    }
+
+    /**
+     * 解析线程放入一行，缓冲满时阻塞；流水线已失败时抛出异常中止解析
+     */
+    @Override
+    public void accept(Integer sheetIndex, Integer rowIndex, T row) {
+        Three<Integer, Integer, T> rowData = new Three<>(sheetIndex, rowIndex, row);
+        try {
+            // 限时放入，避免消费线程全部失败后解析线程永久阻塞
+            while (!this.queue.offer(rowData, 100, TimeUnit.MILLISECONDS)) {
+                this.checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("解析已取消");
+        }
+        this.checkFailure();
+    }
+
+    private void checkFailure() {
+        if (this.failure.get() != null) {
+            throw new CancellationException("行处理异常，停止解析");
+        }
+    }
+
+    /**
+     * 解析正常结束：等待缓冲中的行处理完，有rowHandler异常时抛出
+     */
+    void finish() throws Exception {
+        try {
+            for (int i = 0; i < this.consumers.size(); i++) {
+                // 消费线程已失败退出时不再等待放入
+                while (!this.queue.offer(this.end, 100, TimeUnit.MILLISECONDS)) {
+                    if (this.failure.get() != null) {
+                        break;
+                    }
+                }
+            }
+            for (Future<?> consumer : this.consumers) {
+                consumer.get();
+            }
+        } finally {
+            this.pool.shutdownNow();
+        }
+        this.rethrowFailure();
+    }
+
+    /**
+     * 解析异常结束：停止消费线程；若是rowHandler异常导致的中止，抛出rowHandler异常
+     */
+    void abort() throws Exception {
+        this.pool.shutdownNow();
+        this.rethrowFailure();
+    }
+
+    private void rethrowFailure() throws Exception {
+        Throwable e = this.failure.get();
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+}
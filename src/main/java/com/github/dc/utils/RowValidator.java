@@ -0,0 +1,232 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.RowView;
+import com.github.dc.utils.pojo.ValidationError;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *     按列声明的行校验：必填、正则、数值范围、日期格式、文件内唯一。
+ *     通过{@link SAXExcelParser#validate(RowValidator)}在解析线程中校验每一行（在交给rowHandler之前，
+ *     并行解析sheet页时各sheet页在自己的线程中校验，开启流水线时与消费线程的处理并行），不保存行数据；
+ *     错误交给{@link ValidationErrorSink}，超出内存容量的写入临时文件。
+ *     唯一校验只保存各值的64位哈希（分段加锁的long集合），不保存原值。
+ *     列号为交付的行中的列号（设置了列投影时为投影后的列号）；全部单元格为空的行不校验；
+ *     除必填外，空单元格不校验。唯一校验的状态随解析累积，每次解析使用新的RowValidator。
+ *     用完后关闭，关闭时同时关闭错误收集、删除临时文件
+ * </p>
+ * <pre>
+ * try (RowValidator validator = RowValidator.start().required(1, 2).regex(2, "[A-Z]{3}").range(3, 0, 10000).date(4, "yyyy-MM-dd").unique(1)) {
+ *     SAXExcelParser.start().file(file).validate(validator).run(...);
+ *     validator.getErrorSink().forEach(error -&gt; ...);
+ * }
+ * </pre>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:30
+ */
+public class RowValidator implements Closeable {
+
+    /**
+     * 内存中默认最多保存的错误数
+     */
+    private static final int DEFAULT_MAX_IN_MEMORY = 1000;
+    /**
+     * 唯一校验的分段数，并行解析sheet页时减少锁竞争
+     */
+    private static final int UNIQUE_STRIPES = 16;
+
+    private final List<Rule> rules = new ArrayList<>();
+    private ValidationErrorSink errorSink;
+
+    /**
+     * 单元格校验，通过时返回null，否则返回错误信息
+     */
+    @FunctionalInterface
+    private interface Check {
+        String apply(RowView row, int col);
+    }
+
+    private static class Rule {
+        private final int column;
+        private final String name;
+        private final Check check;
+
+        Rule(int column, String name, Check check) {
+            this.column = column;
+            this.name = name;
+            this.check = check;
+        }
+    }
+
+    private RowValidator() {
+    }
+
+    public static RowValidator start() {
+        return new RowValidator();
+    }
+
+    /**
+     * 必填：单元格不能为空
+     * @param columns 列号，从1开始
+     */
+    public RowValidator required(int... columns) {
+        for (int column : columns) {
+            this.add(column, "required", (row, col) -> row.isBlank(col) ? "不能为空" : null);
+        }
+        return this;
+    }
+
+    /**
+     * 正则：单元格文本需整体匹配
+     * @param column 列号，从1开始
+     * @param regex 正则表达式
+     */
+    public RowValidator regex(int column, String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return this.add(column, "regex", (row, col) -> pattern.matcher(row.getString(col)).matches() ? null : "格式不正确，应匹配" + regex);
+    }
+
+    /**
+     * 数值范围：单元格需为数值且在[min, max]内
+     * @param column 列号，从1开始
+     * @param min 最小值（包含）
+     * @param max 最大值（包含）
+     */
+    public RowValidator range(int column, double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("最小值不能大于最大值");
+        }
+        String message = "超出范围[" + SAXExcelParser.numberText(min) + ", " + SAXExcelParser.numberText(max) + "]";
+        return this.add(column, "range", (row, col) -> {
+            double value;
+            try {
+                value = row.getDouble(col);
+            } catch (NumberFormatException e) {
+                return "不是数值";
+            }
+            return value >= min && value <= max ? null : message;
+        });
+    }
+
+    /**
+     * 日期：数值单元格按Excel日期序列号视为日期，文本单元格需能按format解析
+     * @param column 列号，从1开始
+     * @param format 文本的日期格式，如 "yyyy-MM-dd"
+     */
+    public RowValidator date(int column, String format) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+        return this.add(column, "date", (row, col) -> {
+            try {
+                row.getLocalDateTime(col, formatter);
+                return null;
+            } catch (RuntimeException e) {
+                return "不是日期，日期格式应为" + format;
+            }
+        });
+    }
+
+    /**
+     * 唯一：单元格文本在本次解析的所有行中不重复，重复的第二次及之后出现的行报错
+     * @param columns 列号，从1开始，各列分别判断
+     */
+    public RowValidator unique(int... columns) {
+        for (int column : columns) {
+            LongHashSet[] stripes = new LongHashSet[UNIQUE_STRIPES];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new LongHashSet();
+            }
+            this.add(column, "unique", (row, col) -> {
+                long hash = LongHashSet.hash(row.getString(col));
+                LongHashSet set = stripes[(int) (hash >>> 60)];
+                boolean added;
+                synchronized (set) {
+                    added = set.add(hash);
+                }
+                return added ? null : "与前面的行重复";
+            });
+        }
+        return this;
+    }
+
+    /**
+     * 错误收集，默认内存中保存前1000个错误，之后的写入java.io.tmpdir下的临时文件
+     */
+    public synchronized RowValidator errorSink(ValidationErrorSink errorSink) {
+        this.errorSink = errorSink;
+        return this;
+    }
+
+    public synchronized ValidationErrorSink getErrorSink() {
+        if (this.errorSink == null) {
+            this.errorSink = new ValidationErrorSink(DEFAULT_MAX_IN_MEMORY, null);
+        }
+        return this.errorSink;
+    }
+
+    /**
+     * 关闭错误收集，删除超出内存容量时写入的临时文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.errorSink != null) {
+            this.errorSink.close();
+        }
+    }
+
+    /**
+     * 错误总数
+     */
+    public long getErrorCount() {
+        return this.getErrorSink().getErrorCount();
+    }
+
+    /**
+     * 是否全部通过
+     */
+    public boolean isValid() {
+        return this.getErrorCount() == 0;
+    }
+
+    /**
+     * 校验一行，错误交给错误收集。可多线程并发调用
+     * @param row 行数据
+     */
+    public void validate(RowView row) {
+        if (isBlankRow(row)) {
+            return;
+        }
+        for (Rule rule : this.rules) {
+            if (!rule.name.equals("required") && row.isBlank(rule.column)) {
+                continue;
+            }
+            String message = rule.check.apply(row, rule.column);
+            if (message != null) {
+                this.getErrorSink().add(new ValidationError(row.getSheetIndex(), row.getRowIndex(), rule.column, rule.name, row.getString(rule.column), message));
+            }
+        }
+    }
+
+    private RowValidator add(int column, String name, Check check) {
+        if (column < 1) {
+            throw new IllegalArgumentException("列号必须大于0");
+        }
+        this.rules.add(new Rule(column, name, check));
+        return this;
+    }
+
+    private static boolean isBlankRow(RowView row) {
+        for (int col = 1; col <= row.size(); col++) {
+            if (!row.isBlank(col)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,11 +1,56 @@
 package com.github.dc.utils;
 
+import com.github.dc.utils.pojo.BatchHandler;
+import com.github.dc.utils.pojo.Checkpoint;
+import com.github.dc.utils.pojo.CheckpointStore;
+import com.github.dc.utils.pojo.ColumnChunk;
+import com.github.dc.utils.pojo.ColumnType;
+import com.github.dc.utils.pojo.ExcelColumn;
+import com.github.dc.utils.pojo.ParseListener;
+import com.github.dc.utils.pojo.RowBatch;
+import com.github.dc.utils.pojo.RowView;
+import com.github.dc.utils.pojo.Three;
 import com.github.dc.utils.pojo.ThreeConsumer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRElt;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
@@ -13,17 +58,33 @@ import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 
 /**
  * <p>
- *     SAX方式解析Excel 工具
+ *     SAX方式解析Excel 工具，支持xlsx和xls（BIFF8，事件模式逐条读取记录，不加载整个工作簿），按文件内容自动识别格式
  *     注：导入前把所有单元格格式转为文本，格式转换后再比对是否数值出现异常，特别关注日期格式，如若异常，请特别处理”将日期格式转换成文本格式“
  * </p>
  *
@@ -36,10 +97,43 @@ public class SAXExcelParser {
      * 要读取的文件
      */
     private File file;
+    /**
+     * 要读取的本地文件路径，内存映射读取
+     */
+    private Path path;
+    /**
+     * 要读取的内存数据
+     */
+    private ByteBuffer buffer;
+    /**
+     * 要读取的输入流，第一次解析时读入内存
+     */
+    private InputStream inputStream;
     /**
      * 文件有效区域的起始行号，可设置数据行，跳过标题行读取。默认标题行在第一行
      */
     private int beginRowNum = 1;
+    /**
+     * 文件有效区域的结束行号（包含），超过该行后停止解析当前sheet页。默认读到最后一行
+     */
+    private int endRowNum = Integer.MAX_VALUE;
+    /**
+     * 只读取的sheet页序号（从1开始），与sheetNames都为空时读取所有sheet页
+     */
+    private Set<Integer> sheetIndexes = new HashSet<>();
+    /**
+     * 只读取的sheet页名称
+     */
+    private Set<String> sheetNames = new HashSet<>();
+    /**
+     * 投影列：只读取的列号（从1开始），按此顺序交付，为null时读取所有列
+     */
+    private int[] projectColumns;
+    /**
+     * 投影列：只读取的列标题，按起始行（beginRowNum）的标题匹配列号，按此顺序交付，为null时读取所有列；
+     * 某个位置为null时使用projectColumns中该位置的列号
+     */
+    private String[] projectColumnNames;
     /**
      * 日期列配置，key为列号（从1开始），value为日期格式
      */
@@ -48,6 +142,75 @@ public class SAXExcelParser {
      * 是否自动检测日期格式单元格（默认开启）
      */
     private boolean autoDetectDate = true;
+    /**
+     * 并行解析sheet页的线程数，小于等于1时按sheet页顺序逐个解析（默认）
+     */
+    private int sheetThreads = 1;
+    /**
+     * 并行解析时是否有序交付：true时每个sheet页内按行序、sheet页之间按sheet页序交付，且rowHandler只在调用线程执行；
+     * false时各工作线程解析到一行就直接交给rowHandler（sheet页内仍按行序），rowHandler需线程安全
+     */
+    private boolean orderedDelivery = true;
+    /**
+     * 并行有序交付时，每个sheet页最多缓冲的行数，缓冲满后该sheet页的解析线程阻塞等待
+     */
+    private int sheetBufferRows = 1024;
+    /**
+     * 流水线模式下执行rowHandler的消费线程数，0表示不开启流水线，rowHandler在解析线程内执行（默认）
+     */
+    private int pipelineThreads = 0;
+    /**
+     * 流水线模式下解析线程与消费线程之间有界缓冲的容量（行数）
+     */
+    private int pipelineQueueDepth = 1024;
+    /**
+     * 是否使用内存映射的共享字符串表（见{@link MappedSharedStringsTable}），默认false即使用POI的SharedStringsTable一次性加载进堆内存
+     */
+    private boolean mappedSharedStrings = false;
+    /**
+     * 临时文件目录，为null时使用java.io.tmpdir
+     */
+    private File tempDir;
+    /**
+     * 解析过程监听，为null时不统计
+     */
+    private ParseListener listener;
+    /**
+     * 每交付多少行回调一次进度
+     */
+    private int progressRows = 10000;
+    /**
+     * 稀疏模式：不交付空行，不补齐列数
+     */
+    private boolean sparse = false;
+    /**
+     * 共享字符串驻留最多缓存的字符串个数，0表示不驻留
+     */
+    private int internMaxEntries = 0;
+    /**
+     * 行校验，为null时不校验
+     */
+    private RowValidator validator;
+    /**
+     * 断点存储，为null时不记录断点
+     */
+    private CheckpointStore checkpointStore;
+    /**
+     * 每处理多少行保存一次断点
+     */
+    private int checkpointRows;
+    /**
+     * 是否从断点续传
+     */
+    private boolean resume = false;
+    /**
+     * 本次执行续传的断点，只在执行期间有值
+     */
+    private Checkpoint resumeFrom;
+    /**
+     * 拉取式读取时解析线程打开的文件，只在执行期间有值，用于关闭读取时关闭文件、中止解析
+     */
+    private RowIterator.SourceHandle sourceHandle;
     /**
      * 默认日期时间格式
      */
@@ -57,9 +220,32 @@ public class SAXExcelParser {
      */
     private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd";
     /**
-     * Excel 日期基准点（1900-01-01），但 Excel 错误地将 1900 年当作闰年，所以基准点是 1899-12-30
+     * 估算内存：每个解析线程的缓冲
+     */
+    private static final long PARSE_THREAD_MEMORY = 16L << 20;
+    /**
+     * 估算内存：堆内存中的共享字符串表约为sharedStrings.xml解压后大小的倍数
+     */
+    private static final int SST_MEMORY_FACTOR = 3;
+    /**
+     * 估算内存：xls约为文件大小的倍数
+     */
+    private static final int XLS_MEMORY_FACTOR = 3;
+    /**
+     * 共享字符串驻留默认最多缓存的字符串个数
      */
-    private static final LocalDateTime EXCEL_EPOCH = LocalDateTime.of(1899, 12, 30, 0, 0, 0);
+    private static final int DEFAULT_INTERN_MAX_ENTRIES = 65536;
+    /**
+     * 有效数字不超过该值时，double可以精确表示
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /**
+     * 10的0到22次方，均可被double精确表示
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
     /**
      * Excel 内置日期格式 ID 集合
      * 14-22: 标准日期/时间格式
@@ -68,6 +254,10 @@ public class SAXExcelParser {
     private static final Set<Integer> BUILTIN_DATE_FORMAT_IDS = new HashSet<>(Arrays.asList(
             14, 15, 16, 17, 18, 19, 20, 21, 22, 45, 46, 47
     ));
+    /**
+     * 文件指纹校验的文件头字节数
+     */
+    private static final int FINGERPRINT_BYTES = 64 * 1024;
 
 
     public static SAXExcelParser start() {
@@ -75,15 +265,134 @@ public class SAXExcelParser {
     }
 
     public SAXExcelParser file(File file) {
+        this.clearSource();
         this.file = file;
         return this;
     }
 
+    /**
+     * 读取输入流（如HTTP上传、对象存储下载），整个输入流读入内存后直接按zip条目读取，不写临时文件。
+     * 输入流由调用方关闭
+     * @param inputStream xlsx输入流
+     */
+    public SAXExcelParser source(InputStream inputStream) {
+        this.clearSource();
+        this.inputStream = inputStream;
+        return this;
+    }
+
+    /**
+     * 读取内存中的xlsx数据，直接按zip条目读取，不复制、不写临时文件
+     * @param bytes xlsx数据
+     */
+    public SAXExcelParser source(byte[] bytes) {
+        return this.source(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 读取内存中的xlsx数据（从position到limit，可以是堆外内存），直接按zip条目读取，不改变buffer的position
+     * @param buffer xlsx数据
+     */
+    public SAXExcelParser source(ByteBuffer buffer) {
+        this.clearSource();
+        this.buffer = buffer;
+        return this;
+    }
+
+    /**
+     * 读取本地文件，内存映射后按zip条目读取
+     * @param path 文件路径
+     */
+    public SAXExcelParser source(Path path) {
+        this.clearSource();
+        this.path = path;
+        return this;
+    }
+
+    private void clearSource() {
+        this.file = null;
+        this.path = null;
+        this.buffer = null;
+        this.inputStream = null;
+    }
+
     public SAXExcelParser beginRowNum(int beginRowNum) {
         this.beginRowNum = beginRowNum;
         return this;
     }
 
+    /**
+     * 设置结束行号（包含），读到该行后停止解析当前sheet页，之后的内容不再解压和解析
+     * @param endRowNum 结束行号（从1开始）
+     */
+    public SAXExcelParser endRowNum(int endRowNum) {
+        if (endRowNum < 1) {
+            throw new IllegalArgumentException("结束行号必须大于0");
+        }
+        this.endRowNum = endRowNum;
+        return this;
+    }
+
+    /**
+     * 只读取指定序号的sheet页，未选中的sheet页不会解压和解析；回调的sheet页序号仍为其在工作簿中的序号
+     * @param sheetIndexes sheet页序号数组（从1开始）
+     */
+    public SAXExcelParser sheets(int... sheetIndexes) {
+        for (int sheetIndex : sheetIndexes) {
+            this.sheetIndexes.add(sheetIndex);
+        }
+        return this;
+    }
+
+    /**
+     * 只读取指定名称的sheet页，可与{@link #sheets(int...)}同时使用（取并集）
+     * @param sheetNames sheet页名称数组
+     */
+    public SAXExcelParser sheetNames(String... sheetNames) {
+        this.sheetNames.addAll(Arrays.asList(sheetNames));
+        return this;
+    }
+
+    /**
+     * 列投影：只读取指定的列，交付的行只包含这些列的值且按参数顺序排列，RowView的列号为在参数中的位置（从1开始）。
+     * 未投影的单元格不保存、不取共享字符串、不做日期格式化。日期列配置仍使用原始列号
+     * @param columns 列号数组（从1开始），不能重复
+     */
+    public SAXExcelParser columns(int... columns) {
+        Set<Integer> distinct = new HashSet<>();
+        for (int column : columns) {
+            if (column < 1) {
+                throw new IllegalArgumentException("列号必须大于0：" + column);
+            }
+            if (!distinct.add(column)) {
+                throw new IllegalArgumentException("投影列重复：" + column);
+            }
+        }
+        this.projectColumns = columns.clone();
+        this.projectColumnNames = null;
+        return this;
+    }
+
+    /**
+     * 按列标题投影：以起始行（beginRowNum，默认第1行）为标题行，各sheet页分别按标题匹配列号，其余同{@link #columns(int...)}。
+     * 标题行中找不到某个列标题时抛出IllegalStateException
+     * @param columnNames 列标题数组，不能为空、不能重复
+     */
+    public SAXExcelParser columns(String... columnNames) {
+        Set<String> distinct = new HashSet<>();
+        for (String columnName : columnNames) {
+            if (columnName == null || columnName.trim().isEmpty()) {
+                throw new IllegalArgumentException("投影列标题不能为空：" + Arrays.toString(columnNames));
+            }
+            if (!distinct.add(columnName)) {
+                throw new IllegalArgumentException("投影列重复：" + columnName);
+            }
+        }
+        this.projectColumnNames = columnNames.clone();
+        this.projectColumns = null;
+        return this;
+    }
+
     /**
      * 添加日期列配置（使用默认日期时间格式）
      * @param column 列号（从1开始）
@@ -116,12 +425,204 @@ public class SAXExcelParser {
 
     /**
      * 开启自动检测日期格式单元格
+     * @see #autoDetectDate(boolean)
      */
     public SAXExcelParser autoDetectDate() {
-        this.autoDetectDate = true;
+        return this.autoDetectDate(true);
+    }
+
+    /**
+     * 设置是否自动检测日期格式单元格（默认开启）：按内置日期格式和样式表中的自定义日期格式（numFmt的formatCode）识别日期单元格，
+     * 转为日期时间文本。自定义日期格式的单元格以前返回序列号，需要序列号时关闭自动检测，日期列通过{@link #addDateColumn(int)}等按列配置
+     * @param autoDetectDate 是否自动检测
+     */
+    public SAXExcelParser autoDetectDate(boolean autoDetectDate) {
+        this.autoDetectDate = autoDetectDate;
+        return this;
+    }
+
+    /**
+     * 开启sheet页并行解析，每个sheet页由单独的线程、SAXParser和SheetHandler解析，默认有序交付
+     * @param threads 线程数，小于等于1时不并行
+     */
+    public SAXExcelParser parallelSheets(int threads) {
+        return this.parallelSheets(threads, true);
+    }
+
+    /**
+     * 开启sheet页并行解析
+     * @param threads 线程数，小于等于1时不并行
+     * @param ordered 是否有序交付，见{@link #orderedDelivery}
+     */
+    public SAXExcelParser parallelSheets(int threads, boolean ordered) {
+        this.sheetThreads = threads;
+        this.orderedDelivery = ordered;
+        return this;
+    }
+
+    /**
+     * 并行有序交付时，每个sheet页最多缓冲的行数
+     * @param sheetBufferRows 缓冲行数
+     */
+    public SAXExcelParser sheetBufferRows(int sheetBufferRows) {
+        if (sheetBufferRows < 1) {
+            throw new IllegalArgumentException("sheet页缓冲行数必须大于0");
+        }
+        this.sheetBufferRows = sheetBufferRows;
+        return this;
+    }
+
+    /**
+     * 开启流水线模式：解析线程只负责解码，把解析好的行放入有界缓冲，由consumerThreads个消费线程执行rowHandler。
+     * 适用于rowHandler耗时较多（查库、校验等）的场景；consumerThreads大于1时行的处理顺序不确定，rowHandler需线程安全
+     * @param consumerThreads 消费线程数
+     */
+    public SAXExcelParser pipeline(int consumerThreads) {
+        return this.pipeline(consumerThreads, this.pipelineQueueDepth);
+    }
+
+    /**
+     * 开启流水线模式
+     * @param consumerThreads 消费线程数
+     * @param queueDepth 有界缓冲容量（行数），缓冲满时解析线程阻塞等待
+     */
+    public SAXExcelParser pipeline(int consumerThreads, int queueDepth) {
+        if (consumerThreads < 1 || queueDepth < 1) {
+            throw new IllegalArgumentException("流水线消费线程数和缓冲容量必须大于0");
+        }
+        this.pipelineThreads = consumerThreads;
+        this.pipelineQueueDepth = queueDepth;
+        return this;
+    }
+
+    /**
+     * 使用内存映射的共享字符串表，适用于唯一文本单元格极多（几百万）的大文件：
+     * 解析前流式读取一次sharedStrings.xml写入临时文件，之后按索引O(1)读取，避免整个SST占用堆内存
+     */
+    public SAXExcelParser mappedSharedStrings() {
+        this.mappedSharedStrings = true;
+        return this;
+    }
+
+    /**
+     * 临时文件目录，不设置时使用java.io.tmpdir
+     * @param tempDir 临时文件目录
+     */
+    public SAXExcelParser tempDir(File tempDir) {
+        this.tempDir = tempDir;
+        return this;
+    }
+
+    /**
+     * 设置解析过程监听（进度、各阶段耗时），每10000行回调一次进度
+     * @param listener 监听
+     */
+    public SAXExcelParser listener(ParseListener listener) {
+        return this.listener(listener, this.progressRows);
+    }
+
+    /**
+     * 设置解析过程监听
+     * @param listener 监听
+     * @param progressRows 每交付多少行回调一次进度
+     */
+    public SAXExcelParser listener(ParseListener listener, int progressRows) {
+        if (progressRows < 1) {
+            throw new IllegalArgumentException("进度回调间隔行数必须大于0");
+        }
+        this.listener = listener;
+        this.progressRows = progressRows;
+        return this;
+    }
+
+    /**
+     * 记录断点：每处理everyRows行（rowHandler返回后；按批交付时为batchHandler返回后）保存一次已处理到的sheet页、行号和文件指纹，
+     * 全部处理完成后删除断点。断点之后已处理的行在续传时会再次交付，everyRows应与提交事务的间隔一致，按批交付时批次即提交单位。
+     * 只支持顺序解析，不能与流水线、并行解析sheet页、拉取式读取同时使用
+     * @param store 断点存储
+     * @param everyRows 每处理多少行保存一次
+     */
+    public SAXExcelParser checkpoint(CheckpointStore store, int everyRows) {
+        if (everyRows < 1) {
+            throw new IllegalArgumentException("断点间隔行数必须大于0");
+        }
+        this.checkpointStore = store;
+        this.checkpointRows = everyRows;
+        return this;
+    }
+
+    /**
+     * 记录断点到本地文件
+     * @param checkpointFile 断点文件
+     * @param everyRows 每处理多少行保存一次
+     * @see #checkpoint(CheckpointStore, int)
+     */
+    public SAXExcelParser checkpoint(File checkpointFile, int everyRows) {
+        return this.checkpoint(new FileCheckpointStore(checkpointFile), everyRows);
+    }
+
+    /**
+     * 从断点续传：断点之前的sheet页不读取，断点所在sheet页中断点及之前的行只扫描、不保存单元格、不交付，从下一行继续交付。
+     * 没有断点时从头处理；断点的文件指纹与当前文件不一致时抛出异常，确认是新文件后需先清除断点。
+     * 必须同时通过{@link #checkpoint(CheckpointStore, int)}设置断点存储，否则解析时抛出异常
+     */
+    public SAXExcelParser resume() {
+        this.resume = true;
+        return this;
+    }
+
+    /**
+     * 稀疏模式，适合dimension很大而实际单元格很少的sheet页（如底部有零散的格式），耗时只与实际存在的单元格数有关：
+     * <ul>
+     *     <li>行与行之间的空行不逐行交付，设置了监听时以{@link ParseListener#onRowGap}回调一次空行范围</li>
+     *     <li>行数据不按dimension补齐列数，末尾的空单元格也不保留，只到最后一个有内容的单元格；列投影时仍按投影列数补齐</li>
+     * </ul>
+     */
+    public SAXExcelParser sparse() {
+        this.sparse = true;
+        return this;
+    }
+
+    /**
+     * 共享字符串驻留，最多缓存{@value #DEFAULT_INTERN_MAX_ENTRIES}个字符串，见{@link #internStrings(int)}
+     */
+    public SAXExcelParser internStrings() {
+        return this.internStrings(DEFAULT_INTERN_MAX_ENTRIES);
+    }
+
+    /**
+     * 共享字符串驻留：同一个共享字符串的单元格取到同一个String实例，适合把大量行保留在内存里的场景（如跨行校验），
+     * 状态码、城市、币种这类低基数列不再每个单元格一个副本。
+     * 按共享字符串索引缓存，每次解析独立，解析结束即释放；一个索引第二次出现才缓存，只出现一次的值不占位置；
+     * 缓存满maxEntries个后不再加入，高基数列不会让缓存无限增长
+     * @param maxEntries 最多缓存的字符串个数
+     */
+    public SAXExcelParser internStrings(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("驻留字符串个数必须大于0");
+        }
+        this.internMaxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * 解析时校验每一行：在解析线程中、交给rowHandler之前校验，错误交给校验器的错误收集，不影响行的交付。
+     * 对所有读取方式生效（run、runView、runBatched、迭代器、列式读取、转换行缓存），分页读取除外；
+     * 断点续传时断点之前的行不再解析，不参与唯一校验
+     * @param validator 行校验
+     */
+    public SAXExcelParser validate(RowValidator validator) {
+        this.validator = validator;
         return this;
     }
 
+    /**
+     * 开启共享字符串驻留时包装取值函数
+     */
+    private IntFunction<String> interned(IntFunction<String> sharedStrings) {
+        return this.internMaxEntries > 0 ? new SharedStringInterner(sharedStrings, this.internMaxEntries) : sharedStrings;
+    }
+
     /**
      * 判断格式字符串是否为日期格式
      * @param formatCode 格式代码
@@ -131,7 +632,27 @@ public class SAXExcelParser {
         if (formatCode == null || formatCode.isEmpty()) {
             return false;
         }
-        String upper = formatCode.toUpperCase();
+        // 去掉颜色、区域等方括号内容（如[Red]、[$-804]，保留[h]等经过时间）、引号内的文字和转义字符，避免其中的字母被误判
+        StringBuilder code = new StringBuilder(formatCode.length());
+        for (int i = 0; i < formatCode.length(); i++) {
+            char c = formatCode.charAt(i);
+            if (c == '"') {
+                int end = formatCode.indexOf('"', i + 1);
+                i = end < 0 ? formatCode.length() : end;
+            } else if (c == '\\' || c == '_' || c == '*') {
+                i++;
+            } else if (c == '[') {
+                int end = formatCode.indexOf(']', i + 1);
+                String section = end < 0 ? formatCode.substring(i + 1) : formatCode.substring(i + 1, end);
+                if (section.matches("(?i)h+|m+|s+")) {
+                    code.append(section);
+                }
+                i = end < 0 ? formatCode.length() : end;
+            } else {
+                code.append(c);
+            }
+        }
+        String upper = code.toString().toUpperCase();
         // 检查是否包含日期相关的格式字符
         // y: 年, m: 月, d: 日, h: 时, s: 秒
         // 排除纯数字格式如 "0.00" 中的 m (分钟)
@@ -152,77 +673,919 @@ public class SAXExcelParser {
     }
 
     /**
-     * 将 Excel 日期序列号转换为格式化字符串
-     * @param excelDate Excel 日期序列号
-     * @param format 日期格式
-     * @return 格式化后的日期字符串
+     * 执行解析，每行回调一次
+     * @param rowHandler 参数依次为：第几个sheet页（从1开始）、行号（从1开始）、行数据
      */
-    private static String formatExcelDate(double excelDate, String format) {
-        if (excelDate < 0) {
-            return String.valueOf(excelDate);
-        }
-        try {
-            long wholeDays = (long) excelDate;
-            double fractionOfDay = excelDate - wholeDays;
+    public void run(ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+        this.execute(RowBuffer::toList, rowHandler);
+    }
 
-            // 计算时间部分（毫秒）
-            long millisecondsInDay = Math.round(fractionOfDay * 24 * 60 * 60 * 1000);
+    /**
+     * 执行解析，每行以{@link RowView}回调一次：单元格保存原始文本，只在取值时解码，数值可直接取double/long，
+     * 省去每个单元格创建字符串再解析的开销，适合数值为主的大文件。
+     * 解析线程内回调时视图对象每行复用，只在回调内有效；开启流水线或并行有序交付时，回调的是复制出的独立视图
+     * @param rowHandler 行处理
+     */
+    public void runView(Consumer<RowView> rowHandler) throws Exception {
+        boolean crossThread = this.pipelineThreads > 0 || (this.sheetThreads > 1 && this.orderedDelivery);
+        Function<RowBuffer, RowView> rowMapper = crossThread ? RowBuffer::copy : row -> row;
+        this.execute(rowMapper, (sheetIndex, rowIndex, row) -> rowHandler.accept(row));
+    }
 
-            LocalDateTime dateTime = EXCEL_EPOCH
-                    .plusDays(wholeDays)
-                    .plusNanos(millisecondsInDay * 1_000_000);
+    /**
+     * 执行解析，每行绑定为一个对象后回调：按字段上的{@link ExcelColumn}注解以列标题或列号取值并转换类型。
+     * 每个类的构造器、setter和类型转换只生成一次；只读取绑定的列（覆盖{@link #columns(int...)}的设置）。
+     * 按列标题绑定时以起始行（beginRowNum，默认第1行）为标题行
+     * @param type 绑定的类，需有无参构造器
+     * @param rowHandler 行处理
+     */
+    public <T> void run(Class<T> type, Consumer<T> rowHandler) throws Exception {
+        RowBinder<T> binder = RowBinder.of(type);
+        int[] columns = this.projectColumns;
+        String[] columnNames = this.projectColumnNames;
+        this.projectColumns = binder.getColumns();
+        this.projectColumnNames = binder.getColumnNames();
+        try {
+            this.runView(row -> rowHandler.accept(binder.bind(row)));
+        } finally {
+            this.projectColumns = columns;
+            this.projectColumnNames = columnNames;
+        }
+    }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-            return dateTime.format(formatter);
-        } catch (Exception e) {
-            log.warn("日期格式化失败！数据：{}，格式：{}", excelDate, format, e);
-            return String.valueOf(excelDate);
+    /**
+     * 拉取式逐行读取，取一行解析一行（带少量预读），可随时停止，适合只需要前N行的预览等场景。
+     * 使用完（包括提前结束）必须关闭，关闭时立即停止解析并关闭文件
+     * <pre>
+     * try (RowIterator it = SAXExcelParser.start().file(file).iterator()) {
+     *     while (it.hasNext()) { RowView row = it.next(); ... }
+     * }
+     * </pre>
+     * @return 行迭代器，每行都是独立的RowView
+     */
+    public RowIterator iterator() {
+        if (this.checkpointStore != null || this.resume) {
+            throw new IllegalStateException("断点续传不支持拉取式读取");
         }
+        return new RowIterator((sink, source) -> {
+            this.sourceHandle = source;
+            try {
+                this.execute(RowBuffer::copy, (sheetIndex, rowIndex, row) -> sink.accept(row));
+            } finally {
+                this.sourceHandle = null;
+            }
+        });
     }
 
-    public void run(ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
-        long startTime = System.currentTimeMillis();
-        try (OPCPackage pkg = OPCPackage.open(this.file)) {
+    /**
+     * 拉取式逐行读取的Stream，可使用filter、limit等，limit等短路操作结束后不会继续解析。
+     * 使用完必须关闭，建议使用try-with-resources
+     * <pre>
+     * try (Stream&lt;RowView&gt; rows = SAXExcelParser.start().file(file).stream()) {
+     *     List&lt;List&lt;String&gt;&gt; preview = rows.limit(1000).map(RowView::toList).collect(Collectors.toList());
+     * }
+     * </pre>
+     * @return 行Stream，顺序与run一致
+     */
+    public Stream<RowView> stream() {
+        RowIterator iterator = this.iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 按行索引分页读取，适合反复翻页查看大sheet页（如页面上翻到第5000页）：
+     * 创建时一次性把第一个选中的sheet页XML解压到临时缓存文件，并每隔everyRows行记录一次行在文件中的偏移；
+     * 之后每次读取从最近的索引位置开始解析，读完该页即停止，不再从第1行解析。
+     * 共享字符串、样式、日期列、列投影、稀疏模式等设置在创建时确定，各页共用；按列标题投影时在创建时读取标题行。
+     * 页的行号从起始行（beginRowNum）的下一行开始，不超过结束行（endRowNum）。只支持xlsx，使用完必须关闭，关闭时删除缓存文件
+     * <pre>
+     * try (ExcelRowPager pager = SAXExcelParser.start().file(file).mappedSharedStrings().pager(1000)) {
+     *     List&lt;List&lt;String&gt;&gt; rows = pager.page(5000, 100);
+     * }
+     * </pre>
+     * @param everyRows 每隔多少行记录一次偏移，越小每页多解析的行越少，索引越大
+     * @return 分页读取器，可多线程并发读取
+     */
+    public ExcelRowPager pager(int everyRows) throws Exception {
+        if (everyRows < 1) {
+            throw new IllegalArgumentException("索引间隔行数必须大于0");
+        }
+        if (this.projectColumnNames != null && this.beginRowNum < 1) {
+            throw new IllegalArgumentException("按列标题投影时起始行（标题行）必须大于0");
+        }
+        if (this.checkpointStore != null || this.resume) {
+            throw new IllegalStateException("断点续传不支持分页读取");
+        }
+        if (this.isXls()) {
+            throw new IllegalArgumentException("xls只能顺序读取，不支持按行索引分页读取：" + this.sourceName());
+        }
+        OPCPackage pkg = this.openPackage();
+        Closeable sstResource = null;
+        try {
             XSSFReader xssfReader = new XSSFReader(pkg);
             XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
-            try (SharedStringsTable sst = xssfReader.getSharedStringsTable()){
-                SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-
-                // 解析样式表（如果启用了自动日期检测）
-                Map<Integer, Boolean> dateFormatCache = new HashMap<>();
-                if (this.autoDetectDate) {
-                    try (InputStream stylesIs = xssfReader.getStylesData()) {
-                        StylesHandler stylesHandler = new StylesHandler();
-                        saxParser.parse(stylesIs, stylesHandler);
-                        dateFormatCache = stylesHandler.getDateFormatCache();
-                    } catch (Exception e) {
-                        log.warn("解析样式表失败，将无法自动检测日期格式", e);
-                    }
+            SheetPart sheetPart = null;
+            for (int sheetIndex = 1; it.hasNext() && sheetPart == null; sheetIndex++) {
+                it.next().close();
+                if (this.isSelected(sheetIndex, it.getSheetName())) {
+                    sheetPart = new SheetPart(sheetIndex, it.getSheetName(), it.getSheetPart());
                 }
-
-                int sheetIndex = 1;
-                while (it.hasNext()) {
-                    try (InputStream is = it.next()) {
-                        SheetHandler handler = new SheetHandler(sst, rowHandler, sheetIndex, this.beginRowNum, this.dateColumnFormats, this.autoDetectDate, dateFormatCache);
-                        saxParser.parse(is, handler);
-                    } finally {
-                        sheetIndex ++;
-                    }
+            }
+            if (sheetPart == null) {
+                throw new IllegalArgumentException("【" + this.sourceName() + "】中没有选中的sheet页，sheet页序号：" + this.sheetIndexes + "，sheet页名称：" + this.sheetNames);
+            }
+            IntFunction<String> sharedStrings;
+            if (this.mappedSharedStrings) {
+                MappedSharedStringsTable mappedSst = MappedSharedStringsTable.open(pkg, this.tempDir);
+                sstResource = mappedSst;
+                sharedStrings = mappedSst::getEntryAt;
+            } else {
+                SharedStringsTable sst = xssfReader.getSharedStringsTable();
+                sstResource = sst;
+                sharedStrings = idx -> sstText(((XSSFRichTextString) sst.getItemAt(idx)).getCTRst());
+            }
+            boolean[] dateStyles = this.autoDetectDate ? toDateStyles(this.loadDateFormatCache(xssfReader)) : null;
+            PageReader pageReader = new PageReader(new CellDecoder(this.interned(sharedStrings), this.toDateFormats(), dateStyles), sheetPart.index);
+            ExcelRowPager pager;
+            try (InputStream is = sheetPart.part.getInputStream()) {
+                pager = ExcelRowPager.build(is, this.tempDir, everyRows, this.beginRowNum + 1, this.endRowNum, pageReader, sstResource);
+            }
+            sstResource = null;
+            try {
+                if (this.projectColumnNames != null) {
+                    pageReader.resolveHeader(pager);
                 }
+            } catch (Exception e) {
+                pager.close();
+                throw e;
             }
+            log.debug("【{}】第{}个sheet页已建立行索引，最后一行：{}", this.sourceName(), sheetPart.index, pager.getLastRowNum());
+            return pager;
         } finally {
-            log.debug("读取【{}】Excel并处理结束，耗时{}秒", this.file.getName(), BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+            if (sstResource != null) {
+                sstResource.close();
+            }
+            // 只读打开，关闭时不回写文件
+            pkg.revert();
         }
     }
 
     /**
-     * 样式表解析器，用于提取日期格式信息
+     * 执行解析，按批交付行数据，适合批量写库：
+     * 每批最多batchSize行且只含同一个sheet页的行，sheet页结束和文件结束时交付不满一批的剩余行；RowBatch对象处理完后清空复用。
+     * 开启流水线（{@link #pipeline(int, int)}）时，批次交给消费线程处理，解析线程继续解析下一批，
+     * 此时同时存在的批次对象不超过 消费线程数 + 缓冲容量 + 2 × 并行解析线程数，缓冲容量按批计
+     * @param batchSize 每批行数
+     * @param batchHandler 批处理
      */
-    private class StylesHandler extends DefaultHandler {
-        // numFmtId -> isDateFormat（临时缓存）
-        private Map<Integer, Boolean> numFmtToDateFlag = new HashMap<>();
-        // 当前解析的 numFmtId
-        private int currentNumFmtId = -1;
+    public void runBatched(int batchSize, BatchHandler batchHandler) throws Exception {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("每批行数必须大于0");
+        }
+        CheckpointTracker tracker = this.startCheckpoint();
+        if (tracker != null) {
+            try {
+                this.parseBatched(new BatchCollector(batchSize, Integer.MAX_VALUE, batch -> {
+                    int sheetIndex = batch.getSheetIndex();
+                    int rowIndex = batch.getRowIndex(batch.size() - 1);
+                    int rows = batch.size();
+                    batchHandler.accept(batch);
+                    tracker.delivered(sheetIndex, rowIndex, rows);
+                }));
+                tracker.finish();
+            } finally {
+                this.resumeFrom = null;
+            }
+            return;
+        }
+        if (this.pipelineThreads <= 0) {
+            this.parseBatched(new BatchCollector(batchSize, Integer.MAX_VALUE, batchHandler));
+            return;
+        }
+        int maxBatches = this.pipelineThreads + this.pipelineQueueDepth + 2 * Math.max(1, this.sheetThreads);
+        BatchCollector[] collector = new BatchCollector[1];
+        RowPipeline<RowBatch> pipeline = new RowPipeline<>((sheetIndex, size, batch) -> {
+            try {
+                batchHandler.accept(batch);
+            } finally {
+                collector[0].release(batch);
+            }
+        }, this.pipelineThreads, this.pipelineQueueDepth);
+        collector[0] = new BatchCollector(batchSize, maxBatches, batch -> pipeline.accept(batch.getSheetIndex(), batch.size(), batch));
+        try {
+            this.parseBatched(collector[0]);
+        } catch (Exception e) {
+            pipeline.abort();
+            throw e;
+        }
+        pipeline.finish();
+    }
+
+    private void parseBatched(BatchCollector collector) throws Exception {
+        this.parse(RowBuffer::toList, collector, collector::endSheet);
+    }
+
+    /**
+     * 列式读取，适合只做数值汇总的场景：每chunkSize行（同一个sheet页）填充为一个{@link ColumnChunk}后交付，
+     * 数值列为double[]/long[]加空值位图，字符串列为字典编码，不为每行、每个单元格创建对象。
+     * 第i列为读取的第i列（设置了列投影时为投影后的第i列），类型由types[i-1]指定；数值列中有非数值文本时抛出异常。
+     * ColumnChunk对象处理完后清空复用；只支持顺序解析
+     * @param chunkSize 每块行数
+     * @param chunkHandler 块处理
+     * @param types 各列类型
+     */
+    public void runColumnar(int chunkSize, Consumer<ColumnChunk> chunkHandler, ColumnType... types) throws Exception {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("每块行数必须大于0");
+        }
+        if (types.length == 0) {
+            throw new IllegalArgumentException("未指定列类型");
+        }
+        if (this.pipelineThreads > 0 || this.sheetThreads > 1 || this.checkpointStore != null) {
+            throw new IllegalArgumentException("列式读取只支持顺序解析，不能与流水线、并行解析sheet页、断点续传同时使用");
+        }
+        ColumnarCollector collector = new ColumnarCollector(new ColumnChunk(types, chunkSize), chunkHandler);
+        this.parse(row -> row, collector, collector::endSheet);
+    }
+
+    /**
+     * 转换为二进制行缓存文件，之后用{@link ExcelRowCache#open(File)}打开，多次读取都不再解压、解析XML、取共享字符串：
+     * 行数据与{@link #run(ThreeConsumer)}交付的一致（日期列、列投影、起始行/结束行、稀疏模式等设置在转换时生效），
+     * 共享字符串单元格的文本写入字典，每个只保存一次；其余单元格直接保存UTF-8文本。只支持顺序解析
+     * <pre>
+     * SAXExcelParser.start().file(file).autoDetectDate().writeCache(cacheFile);
+     * try (ExcelRowCache cache = ExcelRowCache.open(cacheFile)) {
+     *     cache.run((sheetIndex, rowIndex, row) -&gt; ...);
+     * }
+     * </pre>
+     * @param cacheFile 缓存文件，已存在时覆盖
+     * @return 写入的行数
+     */
+    public long writeCache(File cacheFile) throws Exception {
+        if (this.pipelineThreads > 0 || this.sheetThreads > 1 || this.checkpointStore != null) {
+            throw new IllegalArgumentException("转换行缓存只支持顺序解析，不能与流水线、并行解析sheet页、断点续传同时使用");
+        }
+        try (ExcelRowCache.Writer writer = new ExcelRowCache.Writer(cacheFile, this.tempDir)) {
+            this.parse(row -> row, new RowCacheCollector(writer), null);
+            writer.finish();
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * 执行解析，开启流水线时由消费线程执行rowHandler
+     * @param rowMapper 把行缓冲转为交给rowHandler的行数据
+     * @param rowHandler 行处理
+     */
+    private <T> void execute(Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler) throws Exception {
+        CheckpointTracker tracker = this.startCheckpoint();
+        if (tracker != null) {
+            try {
+                this.parse(rowMapper, (sheetIndex, rowIndex, row) -> {
+                    rowHandler.accept(sheetIndex, rowIndex, row);
+                    tracker.delivered(sheetIndex, rowIndex, 1);
+                }, null);
+                tracker.finish();
+            } finally {
+                this.resumeFrom = null;
+            }
+            return;
+        }
+        if (this.pipelineThreads <= 0) {
+            this.parse(rowMapper, rowHandler, null);
+            return;
+        }
+        RowPipeline<T> pipeline = new RowPipeline<>(rowHandler, this.pipelineThreads, this.pipelineQueueDepth);
+        try {
+            this.parse(rowMapper, pipeline, null);
+        } catch (Exception e) {
+            // rowHandler异常导致的中止，抛出rowHandler的原始异常
+            pipeline.abort();
+            throw e;
+        }
+        pipeline.finish();
+    }
+
+    /**
+     * 开始记录断点：续传时读取并校验断点
+     * @return 断点记录，未设置断点存储时为null
+     */
+    private CheckpointTracker startCheckpoint() throws IOException {
+        if (this.checkpointStore == null) {
+            return null;
+        }
+        if (this.pipelineThreads > 0 || this.sheetThreads > 1) {
+            throw new IllegalArgumentException("断点续传只支持顺序解析，不能与流水线、并行解析sheet页同时使用");
+        }
+        String fingerprint = this.fingerprint();
+        Checkpoint checkpoint = this.resume ? this.checkpointStore.load() : null;
+        if (checkpoint != null && !fingerprint.equals(checkpoint.getFingerprint())) {
+            throw new IllegalStateException("【" + this.sourceName() + "】与断点记录的文件不一致，断点文件指纹：" + checkpoint.getFingerprint() + "，当前文件指纹：" + fingerprint);
+        }
+        if (checkpoint != null) {
+            log.info("【{}】从断点续传：第{}个sheet页第{}行之后，已处理{}行", this.sourceName(), checkpoint.getSheetIndex(), checkpoint.getRowIndex(), checkpoint.getRows());
+        }
+        this.resumeFrom = checkpoint;
+        return new CheckpointTracker(this.checkpointStore, fingerprint, this.checkpointRows, checkpoint != null ? checkpoint.getRows() : 0);
+    }
+
+    /**
+     * 文件指纹：大小-修改时间-文件头CRC32，内存数据没有修改时间
+     */
+    private String fingerprint() throws IOException {
+        this.loadInputStream();
+        CRC32 crc = new CRC32();
+        long size;
+        long modified = 0;
+        if (this.buffer != null) {
+            ByteBuffer head = this.buffer.duplicate();
+            size = head.remaining();
+            head.limit(head.position() + (int) Math.min(size, FINGERPRINT_BYTES));
+            crc.update(head);
+        } else {
+            File source = this.path != null ? this.path.toFile() : this.file;
+            if (source == null) {
+                throw new IllegalStateException("未设置要读取的Excel");
+            }
+            size = source.length();
+            modified = source.lastModified();
+            byte[] head = new byte[(int) Math.min(size, FINGERPRINT_BYTES)];
+            try (InputStream is = new FileInputStream(source)) {
+                IOUtils.readFully(is, head);
+            }
+            crc.update(head);
+        }
+        return size + "-" + modified + "-" + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * 打开文件并解析
+     * @param rowMapper 把行缓冲转为交给rowHandler的行数据
+     * @param rowHandler 行处理
+     * @param sheetEndHandler sheet页结束处理，参数为第几个sheet页，在该sheet页最后一行交给rowHandler之后执行，可为null
+     */
+    private <T> void parse(Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler, IntConsumer sheetEndHandler) throws Exception {
+        if (this.projectColumnNames != null && this.beginRowNum < 1) {
+            throw new IllegalArgumentException("按列标题投影时起始行（标题行）必须大于0");
+        }
+        if (this.resume && this.checkpointStore == null) {
+            throw new IllegalStateException("断点续传需要先通过checkpoint(...)设置断点存储");
+        }
+        if (this.validator != null) {
+            RowValidator rowValidator = this.validator;
+            Function<RowBuffer, T> mapper = rowMapper;
+            rowMapper = row -> {
+                rowValidator.validate(row);
+                return mapper.apply(row);
+            };
+        }
+        if (this.isXls()) {
+            this.parseXls(rowMapper, rowHandler, sheetEndHandler);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        OPCPackage pkg = this.openPackage();
+        // 只读打开，关闭时不回写文件
+        Closeable pkgResource = pkg::revert;
+        this.sourceOpened(pkgResource);
+        try {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            long sstStartNanos = System.nanoTime();
+            try (SharedStringsTable sst = this.mappedSharedStrings ? null : xssfReader.getSharedStringsTable();
+                 MappedSharedStringsTable mappedSst = this.mappedSharedStrings ? MappedSharedStringsTable.open(pkg, this.tempDir) : null) {
+                IntFunction<String> sharedStrings = this.interned(mappedSst != null ? mappedSst::getEntryAt : idx -> sstText(((XSSFRichTextString) sst.getItemAt(idx)).getCTRst()));
+                this.checkSourceOpen();
+                if (this.listener != null) {
+                    long sstNanos = System.nanoTime() - sstStartNanos;
+                    if (mappedSst != null) {
+                        this.listener.onSharedStringsLoaded(mappedSst.getUniqueCount(), mappedSst.getMappedBytes(), true, sstNanos);
+                    } else {
+                        List<PackagePart> sstParts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+                        this.listener.onSharedStringsLoaded(sst == null ? 0 : sst.getUniqueCount(), sstParts.isEmpty() ? 0 : sstParts.get(0).getSize(), false, sstNanos);
+                    }
+                }
+                // 解析样式表（如果启用了自动日期检测）
+                Map<Integer, Boolean> dateFormatCache = new HashMap<>();
+                if (this.autoDetectDate) {
+                    long stylesStartNanos = System.nanoTime();
+                    dateFormatCache = loadDateFormatCache(xssfReader);
+                    this.checkSourceOpen();
+                    if (this.listener != null) {
+                        this.listener.onStylesLoaded(System.nanoTime() - stylesStartNanos);
+                    }
+                }
+                // 转为按下标访问的数组，避免解析每个单元格时装箱查Map
+                CellDecoder decoder = new CellDecoder(sharedStrings, this.toDateFormats(), this.autoDetectDate ? toDateStyles(dateFormatCache) : null);
+
+                // 只收集选中sheet页的PackagePart，真正读取时再打开输入流
+                List<SheetPart> sheetParts = new ArrayList<>();
+                for (int sheetIndex = 1; it.hasNext(); sheetIndex++) {
+                    it.next().close();
+                    if (this.isSelected(sheetIndex, it.getSheetName())) {
+                        sheetParts.add(new SheetPart(sheetIndex, it.getSheetName(), it.getSheetPart()));
+                    }
+                }
+                if (sheetParts.isEmpty()) {
+                    log.warn("【{}】中没有选中的sheet页，sheet页序号：{}，sheet页名称：{}", this.sourceName(), this.sheetIndexes, this.sheetNames);
+                }
+
+                if (this.sheetThreads > 1 && sheetParts.size() > 1) {
+                    this.parseSheetsInParallel(sheetParts, decoder, rowMapper, rowHandler, sheetEndHandler);
+                } else {
+                    SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+                    for (SheetPart sheetPart : sheetParts) {
+                        this.checkSourceOpen();
+                        this.parseSheet(saxParser, sheetPart, decoder, rowMapper, rowHandler);
+                        if (sheetEndHandler != null) {
+                            sheetEndHandler.accept(sheetPart.index);
+                        }
+                    }
+                }
+            }
+            if (this.listener != null) {
+                this.listener.onFinish(System.nanoTime() - startNanos);
+            }
+        } finally {
+            this.closeSource(pkgResource);
+            log.debug("读取【{}】Excel并处理结束，耗时{}秒", this.sourceName(), BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+        }
+    }
+
+    /**
+     * 解析样式表，取各样式索引是否为日期格式，解析失败时为空
+     */
+    private Map<Integer, Boolean> loadDateFormatCache(XSSFReader xssfReader) {
+        try (InputStream stylesIs = xssfReader.getStylesData()) {
+            StylesHandler stylesHandler = new StylesHandler();
+            SAXParserFactory.newInstance().newSAXParser().parse(stylesIs, stylesHandler);
+            return stylesHandler.getDateFormatCache();
+        } catch (Exception e) {
+            // 拉取式读取已关闭导致的读取失败，不是样式表的问题
+            this.checkSourceOpen();
+            log.warn("解析样式表失败，将无法自动检测日期格式", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * 登记已打开的文件，拉取式读取已关闭时立即关闭文件并中止解析
+     */
+    private void sourceOpened(Closeable resource) throws IOException {
+        if (this.sourceHandle != null) {
+            this.sourceHandle.opened(resource);
+        }
+    }
+
+    /**
+     * 解析结束时关闭文件，拉取式读取已由关闭的线程关闭文件时不再关闭
+     */
+    private void closeSource(Closeable resource) throws IOException {
+        if (this.sourceHandle != null) {
+            this.sourceHandle.release(resource);
+        } else {
+            resource.close();
+        }
+    }
+
+    /**
+     * 拉取式读取已关闭时中止解析
+     */
+    private void checkSourceOpen() {
+        if (this.sourceHandle != null) {
+            this.sourceHandle.checkOpen();
+        }
+    }
+
+    /**
+     * 以只读方式打开工作簿
+     */
+    private OPCPackage openPackage() throws Exception {
+        this.loadInputStream();
+        if (this.buffer != null) {
+            return openPackage(ChannelZipEntrySource.of(this.buffer));
+        }
+        if (this.path != null) {
+            return openPackage(ChannelZipEntrySource.of(this.path));
+        }
+        if (this.file != null) {
+            return OPCPackage.open(this.file, PackageAccess.READ);
+        }
+        throw new IllegalStateException("未设置要读取的Excel");
+    }
+
+    /**
+     * 输入流只能读一次，读入内存后按内存数据解析，再次执行时复用
+     */
+    private void loadInputStream() throws IOException {
+        if (this.inputStream != null) {
+            this.buffer = ByteBuffer.wrap(IOUtils.toByteArray(this.inputStream));
+            this.inputStream = null;
+        }
+    }
+
+    /**
+     * 估算解析占用的堆内存，用于多文件并发导入时控制总内存：
+     * 每个解析线程的缓冲按固定值计；xlsx不使用内存映射共享字符串表时加上共享字符串表（按工作簿关系找到的共享字符串表解压后大小的倍数估算）；
+     * xls的共享字符串表等记录在堆内存中，按文件大小的倍数估算；内存数据来源加上数据本身
+     * @return 估算的字节数
+     */
+    long estimateMemory() throws Exception {
+        this.loadInputStream();
+        long bytes = PARSE_THREAD_MEMORY * Math.max(this.sheetThreads, 1);
+        if (this.buffer != null) {
+            bytes += this.buffer.remaining();
+        }
+        File source = this.path != null ? this.path.toFile() : this.file;
+        long sourceSize = source != null ? source.length() : this.buffer.remaining();
+        if (this.isXls()) {
+            return bytes + sourceSize * XLS_MEMORY_FACTOR;
+        }
+        if (this.mappedSharedStrings) {
+            return bytes;
+        }
+        OPCPackage pkg;
+        try {
+            pkg = this.openPackage();
+        } catch (Exception e) {
+            log.debug("【{}】不是有效的xlsx文件，按文件大小估算内存", this.sourceName());
+            return bytes + sourceSize * SST_MEMORY_FACTOR;
+        }
+        try {
+            PackagePart sstPart = sharedStringsPart(pkg);
+            if (sstPart == null) {
+                return bytes;
+            }
+            long size = sstPart.getSize();
+            if (size < 0) {
+                // 压缩包中未记录解压后大小时读一遍计数
+                try (InputStream is = sstPart.getInputStream()) {
+                    size = IOUtils.skip(is, Long.MAX_VALUE);
+                }
+            }
+            return bytes + size * SST_MEMORY_FACTOR;
+        } finally {
+            // 只读打开，关闭时不回写文件
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 按关系查找工作簿的共享字符串表：包 -> 工作簿（主文档关系）-> 共享字符串表
+     * @return 共享字符串表，没有时为null
+     */
+    private static PackagePart sharedStringsPart(OPCPackage pkg) throws InvalidFormatException {
+        PackageRelationshipCollection coreRelations = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+        if (coreRelations.size() == 0) {
+            coreRelations = pkg.getRelationshipsByType(PackageRelationshipTypes.STRICT_CORE_DOCUMENT);
+        }
+        if (coreRelations.size() == 0) {
+            return null;
+        }
+        PackagePart workbookPart = pkg.getPart(coreRelations.getRelationship(0));
+        if (workbookPart == null) {
+            return null;
+        }
+        PackageRelationshipCollection sstRelations = workbookPart.getRelationshipsByType(XSSFRelation.SHARED_STRINGS.getRelation());
+        return sstRelations.size() == 0 ? null : workbookPart.getRelatedPart(sstRelations.getRelationship(0));
+    }
+
+    /**
+     * 按文件头判断是否为xls（OLE2复合文档）
+     */
+    private boolean isXls() throws IOException {
+        this.loadInputStream();
+        if (this.buffer != null) {
+            if (this.buffer.remaining() < 8) {
+                return false;
+            }
+            byte[] header = new byte[8];
+            this.buffer.duplicate().get(header);
+            return FileMagic.valueOf(header) == FileMagic.OLE2;
+        }
+        if (this.path != null) {
+            return FileMagic.valueOf(this.path.toFile()) == FileMagic.OLE2;
+        }
+        return this.file != null && FileMagic.valueOf(this.file) == FileMagic.OLE2;
+    }
+
+    /**
+     * 以只读方式打开xls
+     */
+    private POIFSFileSystem openXls() throws IOException {
+        POIFSFileSystem fs;
+        if (this.buffer != null) {
+            ByteBuffer data = this.buffer.duplicate();
+            if (data.hasArray()) {
+                fs = new POIFSFileSystem(new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(), data.remaining()));
+            } else {
+                byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                fs = new POIFSFileSystem(new ByteArrayInputStream(bytes));
+            }
+        } else {
+            fs = new POIFSFileSystem(this.path != null ? this.path.toFile() : this.file, true);
+        }
+        if (fs.getRoot().hasEntry("EncryptedPackage")) {
+            fs.close();
+            throw new IllegalArgumentException("不支持读取加密的Excel：" + this.sourceName());
+        }
+        return fs;
+    }
+
+    /**
+     * 事件模式解析xls：按记录顺序逐条处理，只保存当前行，内存占用与文件行数无关（共享字符串表除外）。
+     * 空行补齐、日期识别、起始行/结束行、sheet页选择、列投影与xlsx一致；
+     * xls只能顺序读取，不支持并行解析sheet页，读完最后一个选中的sheet页后停止读取
+     * @param rowMapper 把行缓冲转为交给rowHandler的行数据
+     * @param rowHandler 行处理
+     * @param sheetEndHandler sheet页结束处理，可为null
+     */
+    private <T> void parseXls(Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler, IntConsumer sheetEndHandler) throws Exception {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        if (this.sheetThreads > 1) {
+            log.debug("xls只能顺序读取，忽略并行解析sheet页的设置");
+        }
+        XlsHandler<T> xlsHandler = new XlsHandler<>(rowMapper, rowHandler, sheetEndHandler);
+        HSSFRequest request = new HSSFRequest();
+        // RK、MulRK转为数值记录，每行最后一个单元格后补充行结束记录
+        request.addListenerForAllRecords(new MissingRecordAwareHSSFListener(xlsHandler));
+        POIFSFileSystem fs = this.openXls();
+        this.sourceOpened(fs);
+        try {
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        } catch (StopWorkbookException e) {
+            log.debug("【{}】选中的sheet页已读完，停止读取", this.sourceName());
+        } finally {
+            this.closeSource(fs);
+            log.debug("读取【{}】Excel并处理结束，耗时{}秒", this.sourceName(), BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP));
+        }
+        if (xlsHandler.selectedSheets == 0) {
+            log.warn("【{}】中没有选中的sheet页，sheet页序号：{}，sheet页名称：{}", this.sourceName(), this.sheetIndexes, this.sheetNames);
+        }
+        if (this.listener != null) {
+            this.listener.onFinish(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static OPCPackage openPackage(ZipEntrySource zipEntrySource) throws Exception {
+        try {
+            return OPCPackage.open(zipEntrySource);
+        } catch (Exception e) {
+            zipEntrySource.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 数据来源描述，用于日志
+     */
+    private String sourceName() {
+        if (this.file != null) {
+            return this.file.getName();
+        }
+        if (this.path != null) {
+            return String.valueOf(this.path.getFileName());
+        }
+        return this.buffer != null ? "内存数据" + this.buffer.remaining() + "字节" : "输入流";
+    }
+
+    /**
+     * sheet页是否选中，未指定时全部选中
+     * @param sheetIndex sheet页序号（从1开始）
+     * @param sheetName sheet页名称
+     */
+    private boolean isSelected(int sheetIndex, String sheetName) {
+        if (this.resumeFrom != null && sheetIndex < this.resumeFrom.getSheetIndex()) {
+            // 续传时断点之前的sheet页已处理完
+            return false;
+        }
+        if (this.sheetIndexes.isEmpty() && this.sheetNames.isEmpty()) {
+            return true;
+        }
+        return this.sheetIndexes.contains(sheetIndex) || this.sheetNames.contains(sheetName);
+    }
+
+    /**
+     * 取共享字符串的文本，与{@link XSSFRichTextString#getString()}一致，直接读取底层CTRst，不经过XSSFRichTextString的取文本逻辑
+     * @param rst 共享字符串
+     * @return 文本
+     */
+    private static String sstText(CTRst rst) {
+        if (rst.sizeOfRArray() == 0) {
+            String text = rst.getT();
+            return text == null ? "" : utfDecode(text);
+        }
+        //拼接所有格式段的文本
+        StringBuilder buf = new StringBuilder();
+        for (CTRElt r : rst.getRList()) {
+            buf.append(r.getT());
+        }
+        return utfDecode(buf);
+    }
+
+    /**
+     * 还原OOXML中转义的字符 _xHHHH_，与{@link XSSFRichTextString}读取共享字符串时的处理一致
+     * @param value 原始文本
+     * @return 还原后的文本
+     */
+    static String utfDecode(CharSequence value) {
+        int length = value.length();
+        StringBuilder buf = null;
+        int last = 0;
+        for (int i = 0; i + 6 < length; i++) {
+            if (value.charAt(i) != '_' || value.charAt(i + 1) != 'x' || value.charAt(i + 6) != '_') {
+                continue;
+            }
+            int code = 0;
+            int j = i + 2;
+            for (; j < i + 6; j++) {
+                int digit = Character.digit(value.charAt(j), 16);
+                if (digit < 0) {
+                    break;
+                }
+                code = (code << 4) | digit;
+            }
+            if (j < i + 6) {
+                continue;
+            }
+            if (buf == null) {
+                buf = new StringBuilder(length);
+            }
+            buf.append(value, last, i).append((char) code);
+            last = i + 7;
+            i += 6;
+        }
+        if (buf == null) {
+            return value.toString();
+        }
+        return buf.append(value, last, length).toString();
+    }
+
+    /**
+     * 样式索引 -> 是否为日期格式 转为数组
+     */
+    private static boolean[] toDateStyles(Map<Integer, Boolean> dateFormatCache) {
+        int max = -1;
+        for (Integer styleIndex : dateFormatCache.keySet()) {
+            max = Math.max(max, styleIndex);
+        }
+        boolean[] dateStyles = new boolean[max + 1];
+        for (Map.Entry<Integer, Boolean> entry : dateFormatCache.entrySet()) {
+            dateStyles[entry.getKey()] = Boolean.TRUE.equals(entry.getValue());
+        }
+        return dateStyles;
+    }
+
+    /**
+     * 手动配置的日期列 转为数组，下标为列号
+     */
+    private String[] toDateFormats() {
+        int max = 0;
+        for (Integer column : this.dateColumnFormats.keySet()) {
+            max = Math.max(max, column);
+        }
+        String[] dateFormats = new String[max + 1];
+        for (Map.Entry<Integer, String> entry : this.dateColumnFormats.entrySet()) {
+            if (entry.getKey() >= 0) {
+                dateFormats[entry.getKey()] = entry.getValue();
+            }
+        }
+        return dateFormats;
+    }
+
+    /**
+     * 解析单个sheet页
+     * @param saxParser 当前线程的SAXParser
+     * @param sheetPart sheet页
+     * @param decoder 单元格解码
+     * @param rowMapper 把行缓冲转为交给rowHandler的行数据
+     * @param rowHandler 行处理
+     */
+    private <T> void parseSheet(SAXParser saxParser, SheetPart sheetPart, CellDecoder decoder, Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler) throws Exception {
+        int sheetIndex = sheetPart.index;
+        // 没有监听时不统计，解析过程没有额外开销
+        SheetProgress progress = null;
+        InputStream is = sheetPart.part.getInputStream();
+        if (this.listener != null) {
+            CountingInputStream counting = new CountingInputStream(is);
+            progress = new SheetProgress(this.listener, this.progressRows, sheetIndex, counting, sheetPart.part.getSize());
+            is = counting;
+        }
+        try {
+            if (progress != null) {
+                this.listener.onSheetStart(sheetIndex, sheetPart.name, progress.totalBytes);
+            }
+            SheetHandler<T> handler = new SheetHandler<>(new RowBuffer(decoder, sheetIndex), rowMapper, rowHandler, sheetIndex, this.beginRowNum, this.endRowNum);
+            handler.progress = progress;
+            saxParser.parse(is, handler);
+        } catch (StopSheetException e) {
+            // 已读到结束行，不再解析该sheet页剩余内容
+            log.debug("第{}个sheet页已读到结束行{}，停止解析", sheetIndex, this.endRowNum);
+        } finally {
+            is.close();
+        }
+        if (progress != null) {
+            progress.end();
+        }
+    }
+
+    /**
+     * 多线程并行解析sheet页，每个线程使用自己的SAXParser和SheetHandler，共享只读的SST和样式缓存
+     * <ul>
+     *     <li>有序交付：各sheet页解析出的行先放入该sheet页的有界缓冲，调用线程按sheet页序逐个取出交给rowHandler，缓冲满时解析线程阻塞</li>
+     *     <li>无序交付：解析线程直接调用rowHandler</li>
+     * </ul>
+     * 任一sheet页解析或rowHandler抛出异常时，停止其余解析线程并抛出该异常。
+     * sheetEndHandler与rowHandler在同一线程执行：有序交付时为调用线程，无序交付时为该sheet页的解析线程
+     */
+    private <T> void parseSheetsInParallel(List<SheetPart> sheetParts, CellDecoder decoder, Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler, IntConsumer sheetEndHandler) throws Exception {
+        int nThreads = Math.min(this.sheetThreads, sheetParts.size());
+        ExecutorService pool = new ThreadPoolExecutor(nThreads, nThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        // sheet页解析结束的标记
+        Three<Integer, Integer, T> sheetEnd = new Three<>(-1, -1, null);
+        try {
+            List<Future<?>> futures = new ArrayList<>(sheetParts.size());
+            List<BlockingQueue<Three<Integer, Integer, T>>> buffers = new ArrayList<>(sheetParts.size());
+            // 按sheet页序提交，保证有序交付时当前待取的sheet页一定已在解析，不会死锁
+            for (SheetPart sheetPart : sheetParts) {
+                if (this.orderedDelivery) {
+                    BlockingQueue<Three<Integer, Integer, T>> buffer = new ArrayBlockingQueue<>(this.sheetBufferRows);
+                    buffers.add(buffer);
+                    futures.add(pool.submit(() -> {
+                        try {
+                            this.parseSheet(SAXParserFactory.newInstance().newSAXParser(), sheetPart, decoder, rowMapper,
+                                    (s, r, row) -> putOrCancel(buffer, new Three<>(s, r, row)));
+                        } finally {
+                            putOrCancel(buffer, sheetEnd);
+                        }
+                        return null;
+                    }));
+                } else {
+                    futures.add(pool.submit(() -> {
+                        this.parseSheet(SAXParserFactory.newInstance().newSAXParser(), sheetPart, decoder, rowMapper, rowHandler);
+                        if (sheetEndHandler != null) {
+                            sheetEndHandler.accept(sheetPart.index);
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                if (this.orderedDelivery) {
+                    BlockingQueue<Three<Integer, Integer, T>> buffer = buffers.get(i);
+                    Three<Integer, Integer, T> rowData;
+                    while ((rowData = buffer.take()) != sheetEnd) {
+                        rowHandler.accept(rowData.getFirst(), rowData.getSecond(), rowData.getThree());
+                    }
+                    // 释放已交付sheet页的缓冲
+                    buffers.set(i, null);
+                }
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+                if (this.orderedDelivery && sheetEndHandler != null) {
+                    sheetEndHandler.accept(sheetParts.get(i).index);
+                }
+            }
+        } finally {
+            // 正常结束时所有任务已完成；异常时中断仍阻塞在缓冲上的解析线程
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 放入缓冲，缓冲满时等待；等待时线程被中断则转为CancellationException以终止解析（SAX解析、CSV分块解析共用）
+     */
+    static <E> void putOrCancel(BlockingQueue<E> queue, E e) {
+        try {
+            queue.put(e);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("解析已取消");
+        }
+    }
+
+    /**
+     * 样式表解析器，用于提取日期格式信息
+     */
+    private class StylesHandler extends DefaultHandler {
+        // numFmtId -> isDateFormat（临时缓存）
+        private Map<Integer, Boolean> numFmtToDateFlag = new HashMap<>();
+        // 当前解析的 numFmtId
+        private int currentNumFmtId = -1;
         // 格式代码内容
         private StringBuilder formatCodeBuilder = new StringBuilder();
         // cellXfs 列表索引
@@ -232,313 +1595,1624 @@ public class SAXExcelParser {
         // 最终结果：样式索引 -> 是否为日期格式
         private Map<Integer, Boolean> styleToDateFlag = new HashMap<>();
 
-        public Map<Integer, Boolean> getDateFormatCache() {
-            return styleToDateFlag;
+        public Map<Integer, Boolean> getDateFormatCache() {
+            return styleToDateFlag;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (qName.equals("numFmt")) {
+                currentNumFmtId = Integer.parseInt(attributes.getValue("numFmtId"));
+                // 格式代码在formatCode属性中
+                String formatCode = attributes.getValue("formatCode");
+                formatCodeBuilder = new StringBuilder(formatCode != null ? formatCode : "");
+            } else if (qName.equals("cellXfs")) {
+                xfIndex = -1;
+            } else if (qName.equals("xf")) {
+                xfIndex++;
+                String numFmtIdStr = attributes.getValue("numFmtId");
+                if (numFmtIdStr != null) {
+                    int numFmtId = Integer.parseInt(numFmtIdStr);
+                    xfToNumFmt.put(xfIndex, numFmtId);
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (currentNumFmtId >= 0) {
+                formatCodeBuilder.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (qName.equals("numFmt")) {
+                String formatCode = formatCodeBuilder.toString().trim();
+                boolean isDate = isDateFormat(formatCode);
+                numFmtToDateFlag.put(currentNumFmtId, isDate);
+                currentNumFmtId = -1;
+            } else if (qName.equals("styleSheet")) {
+                // 样式表解析完成，建立样式索引 -> 是否为日期格式的映射
+                // 1. 先将内置日期格式 ID 加入缓存
+                for (Integer fmtId : BUILTIN_DATE_FORMAT_IDS) {
+                    numFmtToDateFlag.put(fmtId, true);
+                }
+                // 2. 将样式索引转换为是否为日期格式
+                for (Map.Entry<Integer, Integer> entry : xfToNumFmt.entrySet()) {
+                    int styleIndex = entry.getKey();
+                    int numFmtId = entry.getValue();
+                    Boolean isDate = numFmtToDateFlag.get(numFmtId);
+                    if (isDate != null && isDate) {
+                        styleToDateFlag.put(styleIndex, true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 按sheet页把行攒成批次，满一批或sheet页结束时交给batchHandler；处理完的批次清空后放回空闲池复用。
+     * 并行无序交付时多个sheet页同时攒批，各自独立
+     */
+    private static class BatchCollector implements ThreeConsumer<Integer, Integer, List<String>> {
+        private final int batchSize;
+        // 最多创建的批次对象数
+        private final int maxBatches;
+        private final BatchHandler batchHandler;
+        // 各sheet页正在攒的批次
+        private final Map<Integer, RowBatch> openBatches = new HashMap<>();
+        // 空闲批次
+        private final BlockingQueue<RowBatch> freeBatches = new LinkedBlockingQueue<>();
+        // 已创建的批次对象数
+        private int createdBatches = 0;
+
+        BatchCollector(int batchSize, int maxBatches, BatchHandler batchHandler) {
+            this.batchSize = batchSize;
+            this.maxBatches = maxBatches;
+            this.batchHandler = batchHandler;
+        }
+
+        @Override
+        public void accept(Integer sheetIndex, Integer rowIndex, List<String> row) {
+            RowBatch full;
+            synchronized (this) {
+                RowBatch batch = this.openBatches.get(sheetIndex);
+                if (batch != null && !batch.isFull()) {
+                    batch.add(rowIndex, row);
+                    return;
+                }
+                // 满批等到该sheet页的下一行到来时才交付，以便sheet页结束时能标记最后一批
+                full = batch == null ? null : this.openBatches.remove(sheetIndex);
+            }
+            if (full != null) {
+                this.batchHandler.accept(full);
+                this.releaseIfSync(full);
+            }
+            // 在同步块外取空闲批次，一个sheet页等待消费线程释放批次时不阻塞其他sheet页
+            RowBatch batch = this.obtain(sheetIndex);
+            batch.add(rowIndex, row);
+            synchronized (this) {
+                this.openBatches.put(sheetIndex, batch);
+            }
+        }
+
+        /**
+         * sheet页结束，交付剩余的行
+         */
+        void endSheet(int sheetIndex) {
+            RowBatch batch;
+            synchronized (this) {
+                batch = this.openBatches.remove(sheetIndex);
+            }
+            if (batch == null) {
+                // 该sheet页没有数据，不交付空批次
+                return;
+            }
+            batch.setLastOfSheet(true);
+            this.batchHandler.accept(batch);
+            this.releaseIfSync(batch);
+        }
+
+        /**
+         * 取一个空闲批次，达到上限时等待消费线程处理完释放
+         */
+        private RowBatch obtain(int sheetIndex) {
+            RowBatch batch = this.freeBatches.poll();
+            if (batch == null) {
+                synchronized (this) {
+                    if (this.createdBatches < this.maxBatches) {
+                        this.createdBatches++;
+                        batch = new RowBatch(this.batchSize);
+                    }
+                }
+            }
+            if (batch == null) {
+                try {
+                    batch = this.freeBatches.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("解析已取消");
+                }
+            }
+            batch.reset(sheetIndex);
+            return batch;
+        }
+
+        /**
+         * 同步模式下批次处理完即可复用
+         */
+        private void releaseIfSync(RowBatch batch) {
+            if (this.maxBatches == Integer.MAX_VALUE) {
+                this.release(batch);
+            }
+        }
+
+        void release(RowBatch batch) {
+            this.freeBatches.offer(batch);
+        }
+    }
+
+    /**
+     * 列式读取：把行缓冲按列写入复用的ColumnChunk，满一块或sheet页结束时交付
+     */
+    private static class ColumnarCollector implements ThreeConsumer<Integer, Integer, RowBuffer> {
+        private final ColumnChunk chunk;
+        private final Consumer<ColumnChunk> chunkHandler;
+        private final ColumnType[] types;
+        // 字符串列：本块内共享字符串索引 -> 字典编码，省去重复取共享字符串和查字典；与块的字典一起清空
+        private final SharedStringCodes[] sharedStringCodes;
+
+        ColumnarCollector(ColumnChunk chunk, Consumer<ColumnChunk> chunkHandler) {
+            this.chunk = chunk;
+            this.chunkHandler = chunkHandler;
+            this.types = new ColumnType[chunk.getColumnCount()];
+            this.sharedStringCodes = new SharedStringCodes[this.types.length];
+            for (int col = 1; col <= this.types.length; col++) {
+                this.types[col - 1] = chunk.getType(col);
+                if (this.types[col - 1] == ColumnType.STRING) {
+                    this.sharedStringCodes[col - 1] = new SharedStringCodes();
+                }
+            }
+        }
+
+        @Override
+        public void accept(Integer sheetIndex, Integer rowIndex, RowBuffer row) {
+            if (!this.chunk.isEmpty() && this.chunk.getSheetIndex() != sheetIndex) {
+                this.flush();
+            }
+            if (this.chunk.isEmpty()) {
+                this.chunk.reset(sheetIndex);
+            }
+            int i = this.chunk.addRow(rowIndex);
+            for (int col = 1; col <= this.types.length; col++) {
+                if (row.isEmpty(col)) {
+                    continue;
+                }
+                try {
+                    switch (this.types[col - 1]) {
+                        case DOUBLE:
+                            this.chunk.setDouble(col, i, row.getDouble(col));
+                            break;
+                        case LONG:
+                            this.chunk.setLong(col, i, row.getLong(col));
+                            break;
+                        default:
+                            this.chunk.setCode(col, i, this.encode(row, col));
+                    }
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("第" + sheetIndex + "个sheet页第" + rowIndex + "行第" + col + "列的值【"
+                            + row.getString(col) + "】无法转换为" + this.types[col - 1], e);
+                }
+            }
+            if (this.chunk.isFull()) {
+                this.flush();
+            }
+        }
+
+        /**
+         * 字符串列的字典编码，共享字符串按索引缓存编码
+         */
+        private int encode(RowBuffer row, int col) {
+            int index = row.sharedStringIndex(col);
+            if (index < 0) {
+                return this.chunk.encode(col, row.getString(col));
+            }
+            SharedStringCodes codes = this.sharedStringCodes[col - 1];
+            int code = codes.get(index);
+            if (code < 0) {
+                code = this.chunk.encode(col, row.getString(col));
+                codes.put(index, code);
+            }
+            return code;
+        }
+
+        /**
+         * sheet页结束，交付剩余行
+         */
+        void endSheet(int sheetIndex) {
+            if (!this.chunk.isEmpty()) {
+                this.flush();
+            }
+        }
+
+        private void flush() {
+            this.chunkHandler.accept(this.chunk);
+            this.chunk.reset(this.chunk.getSheetIndex());
+            for (SharedStringCodes codes : this.sharedStringCodes) {
+                if (codes != null) {
+                    codes.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * 列式读取时一块内一列的共享字符串索引 -> 字典编码。开放寻址，负载超过一半时扩容，
+     * 条目数不超过块内该列不同共享字符串的个数，不随共享字符串表的大小增长
+     */
+    private static class SharedStringCodes {
+        // 共享字符串索引+1，0表示空位
+        private int[] keys = new int[64];
+        private int[] codes = new int[64];
+        private int size;
+
+        /**
+         * 编码，未缓存时返回-1
+         */
+        int get(int index) {
+            int mask = this.keys.length - 1;
+            for (int slot = hash(index) & mask; ; slot = (slot + 1) & mask) {
+                if (this.keys[slot] == 0) {
+                    return -1;
+                }
+                if (this.keys[slot] == index + 1) {
+                    return this.codes[slot];
+                }
+            }
+        }
+
+        /**
+         * 加入，调用方保证该索引未缓存
+         */
+        void put(int index, int code) {
+            if ((this.size + 1) * 2 > this.keys.length) {
+                int[] oldKeys = this.keys;
+                int[] oldCodes = this.codes;
+                this.keys = new int[oldKeys.length * 2];
+                this.codes = new int[oldKeys.length * 2];
+                for (int slot = 0; slot < oldKeys.length; slot++) {
+                    if (oldKeys[slot] != 0) {
+                        this.insert(oldKeys[slot], oldCodes[slot]);
+                    }
+                }
+            }
+            this.insert(index + 1, code);
+            this.size++;
+        }
+
+        private void insert(int key, int code) {
+            int mask = this.keys.length - 1;
+            int slot = hash(key - 1) & mask;
+            while (this.keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = key;
+            this.codes[slot] = code;
+        }
+
+        void clear() {
+            if (this.size > 0) {
+                Arrays.fill(this.keys, 0);
+                this.size = 0;
+            }
+        }
+
+        private static int hash(int index) {
+            int h = index * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * 写入行缓存：共享字符串单元格按索引缓存字典条目序号，同一个共享字符串只取值、写入字典一次
+     */
+    private static class RowCacheCollector implements ThreeConsumer<Integer, Integer, RowBuffer> {
+        private final ExcelRowCache.Writer writer;
+        // 共享字符串索引 -> 字典条目序号+1，0表示未写入字典
+        private int[] sharedStringIds = new int[64];
+
+        RowCacheCollector(ExcelRowCache.Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(Integer sheetIndex, Integer rowIndex, RowBuffer row) {
+            try {
+                this.writer.startRow(sheetIndex, rowIndex, row.size());
+                for (int col = 1; col <= row.size(); col++) {
+                    int index = row.sharedStringIndex(col);
+                    if (index < 0) {
+                        this.writer.writeText(row.getString(col));
+                        continue;
+                    }
+                    if (index >= this.sharedStringIds.length) {
+                        this.sharedStringIds = Arrays.copyOf(this.sharedStringIds, Math.max(this.sharedStringIds.length * 2, index + 1));
+                    }
+                    if (this.sharedStringIds[index] == 0) {
+                        this.sharedStringIds[index] = this.writer.addDictionary(row.getString(col)) + 1;
+                    }
+                    this.writer.writeReference(this.sharedStringIds[index] - 1);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("写入行缓存失败", e);
+            }
+        }
+    }
+
+    /**
+     * 选中的sheet页
+     */
+    private static class SheetPart {
+        // 第几个sheet页，从1开始
+        private final int index;
+        private final String name;
+        private final PackagePart part;
+
+        SheetPart(int index, String name, PackagePart part) {
+            this.index = index;
+            this.name = name;
+            this.part = part;
+        }
+    }
+
+    /**
+     * 分页读取时解析一段sheet页XML，各页共用解码器和投影列，每次读取使用自己的SAXParser和SheetHandler
+     */
+    private class PageReader implements ExcelRowPager.SliceParser {
+        private final CellDecoder decoder;
+        // 第几个sheet页，从1开始
+        private final int sheetIndex;
+        // 投影列，按列标题投影时为从标题行匹配出的列号；为null时不投影
+        private int[] columns;
+
+        PageReader(CellDecoder decoder, int sheetIndex) {
+            this.decoder = decoder;
+            this.sheetIndex = sheetIndex;
+            this.columns = projectColumns;
+        }
+
+        /**
+         * 读取标题行，按列标题匹配投影列
+         */
+        void resolveHeader(ExcelRowPager pager) throws Exception {
+            SheetHandler<List<String>> handler = new SheetHandler<>(new RowBuffer(this.decoder, this.sheetIndex), RowBuffer::toList,
+                    (s, r, row) -> { }, this.sheetIndex, beginRowNum, beginRowNum);
+            this.parse(pager.openAt(beginRowNum), handler);
+            if (handler.headerNames != null) {
+                throw new IllegalStateException("第" + this.sheetIndex + "个sheet页没有标题行（第" + beginRowNum + "行），无法按列标题投影");
+            }
+            this.columns = handler.row.sourceColumns;
+        }
+
+        @Override
+        public void parse(InputStream sheetXml, int firstRow, int lastRow, ThreeConsumer<Integer, Integer, List<String>> rowHandler) throws Exception {
+            int first = Math.max(firstRow, beginRowNum + 1);
+            int last = Math.min(lastRow, endRowNum);
+            if (first > last) {
+                sheetXml.close();
+                return;
+            }
+            SheetHandler<List<String>> handler = new SheetHandler<>(new RowBuffer(this.decoder, this.sheetIndex), RowBuffer::toList,
+                    rowHandler, this.sheetIndex, first - 1, last);
+            // 标题行已在创建时匹配
+            handler.headerNames = null;
+            if (this.columns != null) {
+                handler.project(this.columns);
+            }
+            this.parse(sheetXml, handler);
+        }
+
+        private void parse(InputStream sheetXml, SheetHandler<List<String>> handler) throws Exception {
+            try {
+                SAXParserFactory.newInstance().newSAXParser().parse(sheetXml, handler);
+            } catch (StopSheetException e) {
+                // 已读到结束行
+            } finally {
+                sheetXml.close();
+            }
+        }
+    }
+
+    /**
+     * 单个sheet页的解析统计，只在设置了监听时创建，只在该sheet页的解析线程中使用
+     */
+    private static class SheetProgress {
+        private final ParseListener listener;
+        private final int progressRows;
+        private final int sheetIndex;
+        private final CountingInputStream counting;
+        private final long totalBytes;
+        private final long startNanos = System.nanoTime();
+        private long rows = 0;
+        private long handlerNanos = 0;
+
+        SheetProgress(ParseListener listener, int progressRows, int sheetIndex, CountingInputStream counting, long totalBytes) {
+            this.listener = listener;
+            this.progressRows = progressRows;
+            this.sheetIndex = sheetIndex;
+            this.counting = counting;
+            this.totalBytes = totalBytes;
+        }
+
+        /**
+         * 交付了一行
+         * @param nanos rowHandler耗时
+         */
+        void delivered(long nanos) {
+            this.handlerNanos += nanos;
+            if (++this.rows % this.progressRows == 0) {
+                this.listener.onProgress(this.sheetIndex, this.rows, this.bytesRead(), this.totalBytes);
+            }
+        }
+
+        void end() {
+            long nanos = System.nanoTime() - this.startNanos;
+            this.listener.onSheetEnd(this.sheetIndex, this.rows, this.bytesRead(), nanos - this.handlerNanos, this.handlerNanos);
+        }
+
+        /**
+         * 已读取的字节数，xls按记录读取，不统计，为-1
+         */
+        private long bytesRead() {
+            return this.counting != null ? this.counting.getByteCount() : -1;
+        }
+    }
+
+    /**
+     * 断点记录，在交付行的线程中使用
+     */
+    private static class CheckpointTracker {
+        private final CheckpointStore store;
+        private final String fingerprint;
+        private final int everyRows;
+        // 已处理的总行数（含之前各次执行）
+        private long rows;
+        // 上次保存后处理的行数
+        private int pending = 0;
+
+        CheckpointTracker(CheckpointStore store, String fingerprint, int everyRows, long rows) {
+            this.store = store;
+            this.fingerprint = fingerprint;
+            this.everyRows = everyRows;
+            this.rows = rows;
+        }
+
+        /**
+         * 处理完了一行或一批
+         * @param sheetIndex 最后一行所在的sheet页
+         * @param rowIndex 最后一行的行号
+         * @param count 行数
+         */
+        void delivered(int sheetIndex, int rowIndex, int count) {
+            this.rows += count;
+            this.pending += count;
+            if (this.pending < this.everyRows) {
+                return;
+            }
+            this.pending = 0;
+            try {
+                this.store.save(new Checkpoint(this.fingerprint, sheetIndex, rowIndex, this.rows));
+            } catch (IOException e) {
+                throw new IllegalStateException("保存断点失败", e);
+            }
+        }
+
+        /**
+         * 全部处理完成，删除断点
+         */
+        void finish() throws IOException {
+            this.store.clear();
+        }
+    }
+
+    /**
+     * 选中的sheet页已全部读完，用于提前结束xls的读取
+     */
+    private static class StopWorkbookException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StopWorkbookException() {
+            super("选中的sheet页已读完", null, false, false);
+        }
+    }
+
+    /**
+     * 已读到结束行，用于提前结束当前sheet页的SAX解析
+     */
+    private static class StopSheetException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopSheetException() {
+            super("已读到结束行");
+        }
+    }
+
+    private class SheetHandler<T> extends DefaultHandler {
+        // 行缓冲，每行复用
+        private RowBuffer row;
+        // 把行缓冲转为交给rowHandler的行数据
+        private Function<RowBuffer, T> rowMapper;
+        // 每行数据读完就执行
+        private ThreeConsumer<Integer, Integer, T> rowHandler;
+        // 第几个sheet页，从1开始
+        private int sheetIndex;
+        // 读取excel内容起始行
+        private int beginRowNum;
+        // 读取excel内容结束行（包含）
+        private int endRowNum;
+        // 续传时断点所在sheet页已处理到的行号，该行及之前的行不保存、不交付，其余sheet页为0
+        private int resumeRowNum;
+        // 当前行是否在读取范围内，范围外的行不保存单元格
+        private boolean inWindow = false;
+        // 当前行是否为按列标题投影时的标题行
+        private boolean inHeader = false;
+        // 列号 -> 在投影中的位置（从1开始），0表示未投影；为null时不投影
+        private int[] slots;
+        // 按列标题投影时待匹配的列标题，匹配完成前为非null
+        private String[] headerNames;
+        // 当前单元格在行缓冲中的列号，投影时为在投影中的位置，0表示跳过该单元格
+        private int currentSlot = 0;
+        // 解析统计，没有监听时为null
+        private SheetProgress progress;
+        // 当前单元格列号（从1开始）
+        private int currentColumnIndex = 0;
+        // 当前单元格样式索引（s属性）
+        private int currentStyleIndex = -1;
+        // 当前单元格类型（t属性）
+        private byte currentCellType = RowBuffer.NUMBER;
+
+        public SheetHandler(RowBuffer row, Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler, int sheetIndex, int beginRowNum, int endRowNum) {
+            this.row = row;
+            this.rowMapper = rowMapper;
+            this.rowHandler = rowHandler;
+            this.sheetIndex = sheetIndex;
+            this.beginRowNum = beginRowNum;
+            this.endRowNum = endRowNum;
+            this.resumeRowNum = resumeFrom != null && resumeFrom.getSheetIndex() == sheetIndex ? resumeFrom.getRowIndex() : 0;
+            if (projectColumnNames != null) {
+                this.headerNames = projectColumnNames;
+            } else if (projectColumns != null) {
+                this.project(projectColumns);
+            }
+        }
+
+        /**
+         * 设置投影列
+         * @param columns 投影的列号，按交付顺序
+         */
+        private void project(int[] columns) {
+            int max = 0;
+            for (int column : columns) {
+                max = Math.max(max, column);
+            }
+            this.slots = new int[max + 1];
+            for (int i = 0; i < columns.length; i++) {
+                this.slots[columns[i]] = i + 1;
+            }
+            this.row.project(columns);
+        }
+
+        /**
+         * 把当前行交给rowHandler
+         */
+        private void deliver(int rowNum) {
+            T data = rowMapper.apply(row);
+            if (progress == null) {
+                rowHandler.accept(sheetIndex, rowNum, data);
+                return;
+            }
+            long start = System.nanoTime();
+            rowHandler.accept(sheetIndex, rowNum, data);
+            progress.delivered(System.nanoTime() - start);
+        }
+
+        /**
+         * 标题行结束，按列标题匹配投影列
+         */
+        private void resolveHeader() {
+            Map<String, Integer> headerColumns = new HashMap<>();
+            for (int col = row.lastColumn; col >= 1; col--) {
+                if (row.types[col] != RowBuffer.BLANK) {
+                    // 标题重复时取第一个
+                    headerColumns.put(row.rawString(col).trim(), col);
+                }
+            }
+            int[] columns = new int[headerNames.length];
+            for (int i = 0; i < headerNames.length; i++) {
+                if (headerNames[i] == null) {
+                    columns[i] = projectColumns[i];
+                    continue;
+                }
+                Integer column = headerColumns.get(headerNames[i].trim());
+                if (column == null) {
+                    throw new IllegalStateException("第" + sheetIndex + "个sheet页标题行（第" + beginRowNum + "行）中未找到列：" + headerNames[i]);
+                }
+                columns[i] = column;
+            }
+            this.project(columns);
+            this.headerNames = null;
+        }
+
+
+        /**
+         * 行开始：补齐与上一行之间的空行，判断是否在读取范围内
+         * @param rowNum 行号，从1开始
+         */
+        private void startRow(int rowNum) throws StopSheetException {
+            //判断空行，与上一行相差2, 说明中间有空行
+            if (lastRowNum > 0) {
+                int firstEmptyRowNum = Math.max(Math.max(lastRowNum, this.beginRowNum), this.resumeRowNum) + 1;
+                int lastEmptyRowNum = Math.min(rowNum - 1, this.endRowNum);
+                if (sparse) {
+                    // 稀疏模式只回调一次空行范围
+                    if (firstEmptyRowNum <= lastEmptyRowNum && listener != null) {
+                        listener.onRowGap(sheetIndex, firstEmptyRowNum, lastEmptyRowNum);
+                    }
+                } else {
+                    for (int emptyRowNum = firstEmptyRowNum; emptyRowNum <= lastEmptyRowNum; emptyRowNum++) {
+                        row.reset(emptyRowNum);
+                        this.deliver(emptyRowNum);
+                    }
+                }
+            }
+            if (rowNum > this.endRowNum) {
+                throw new StopSheetException();
+            }
+
+            lastRowNum = rowNum;
+            lastColumnIndex = 0;
+            inWindow = this.beginRowNum < rowNum && this.resumeRowNum < rowNum;
+            inHeader = headerNames != null && rowNum == this.beginRowNum;
+            if (inWindow && headerNames != null) {
+                throw new IllegalStateException("第" + sheetIndex + "个sheet页没有标题行（第" + beginRowNum + "行），无法按列标题投影");
+            }
+            if (inWindow || inHeader) {
+                row.reset(rowNum);
+            }
+            currentSlot = 0;
+        }
+
+        /**
+         * 单元格在行缓冲中的列号
+         * @param column 列号，从1开始
+         * @return 投影时为在投影中的位置；范围外的行、未投影的列为0，不保存
+         */
+        private int slotOf(int column) {
+            if (!inWindow && !inHeader) {
+                return 0;
+            }
+            if (slots == null || inHeader) {
+                return column;
+            }
+            return column < slots.length ? slots[column] : 0;
+        }
+
+        /**
+         * 行结束：补齐列数后交给rowHandler
+         */
+        private void endRow() throws StopSheetException {
+            //判断最后一个单元格是否在最后，补齐列数
+            //【注意】有的单元格只修改单元格格式，而没有内容，会出现c标签下没有v标签，这些列按空字符串补齐
+            if (inHeader) {
+                this.resolveHeader();
+                inHeader = false;
+            }
+            if (inWindow) {
+                if (slots != null) {
+                    row.finish(row.sourceColumns.length);
+                } else if (sparse) {
+                    row.finishSparse();
+                } else {
+                    row.finish(longest);
+                }
+                this.deliver(lastRowNum);
+                inWindow = false;
+            }
+            if (lastRowNum >= this.endRowNum) {
+                throw new StopSheetException();
+            }
+        }
+
+        /**
+         * 存储cell标签下v标签包裹的字符文本内容，复用同一个缓冲区，避免每次characters()回调都拼接字符串
+         * 在v标签开始后，解析器自动调用characters()保存到 contents
+         * 【但】当cell标签的属性 t是 s时, 表示取到的contents是 SharedStringsTable 的index值，取值时再根据index获取真正的值
+         */
+        private char[] contents = new char[64];
+        // contents中有效字符数
+        private int contentsLength = 0;
+        //根据dimension得出每行的数据长度
+        private int longest;
+        //上个有内容的单元格列号，0表示本行还没有单元格
+        private int lastColumnIndex = 0;
+        //上一行行号，0表示还没有行, 判断空行
+        private int lastRowNum = 0;
+        // 判断单元格cell的c标签下是否有v，否则可能数据错位
+        private boolean hasV = false;
+
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+
+            contentsLength = 0;
+            if (qName.equals("dimension")) {
+                String dimension = attributes.getValue("ref");
+                longest = columnOf(dimension, dimension.indexOf(':') + 1);
+            }
+            //行开始
+            if (qName.equals("row")) {
+                // r属性可省略，省略时为上一行的下一行
+                String r = attributes.getValue("r");
+                this.startRow(r != null ? Integer.parseInt(r) : lastRowNum + 1);
+            }
+            if (qName.equals("c") && (inWindow || inHeader)) {
+                // r属性可省略，省略时为上一个单元格的下一列
+                String r = attributes.getValue("r");
+                currentColumnIndex = r != null ? columnOf(r, 0) : lastColumnIndex + 1;
+                lastColumnIndex = currentColumnIndex;
+                // 未投影的列跳过
+                currentSlot = this.slotOf(currentColumnIndex);
+                if (currentSlot == 0) {
+                    return;
+                }
+
+                // 获取样式索引（s属性）
+                String styleAttr = attributes.getValue("s");
+                currentStyleIndex = styleAttr != null ? Integer.parseInt(styleAttr) : -1;
+
+                //单元格类型，t为s时单元格的值是SST 的索引，不能直接characters方法取值
+                currentCellType = RowBuffer.cellType(attributes.getValue("t"));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+
+            //行结束,存储一行数据
+            if (qName.equals("row")) {
+                this.endRow();
+            }
+
+            //范围外的行、未投影的单元格不保存
+            if (currentSlot == 0) {
+                return;
+            }
+
+            //单元格结束，没有v时需要补位
+            if (qName.equals("c")){
+                if (!hasV) {
+                    row.setCell(currentSlot, currentCellType, currentStyleIndex, contents, contentsLength);
+                }
+                hasV = false;
+                currentSlot = 0;
+            }
+
+            //单元格内容标签结束，characters方法会被调用处理内容
+            if (qName.equals("v")) {
+                hasV = true;
+                row.setCell(currentSlot, currentCellType, currentStyleIndex, contents, contentsLength);
+            }
+
+        }
+
+
+        /**
+         * 获取element的文本数据，追加到复用的缓冲区
+         *
+         * @see ContentHandler#characters
+         */
+        @Override
+        public void characters(char[] ch, int start, int length)
+                throws SAXException {
+            if (currentSlot == 0) {
+                return;
+            }
+            if (contentsLength + length > contents.length) {
+                contents = Arrays.copyOf(contents, Math.max(contents.length * 2, contentsLength + length));
+            }
+            System.arraycopy(ch, start, contents, contentsLength, length);
+            contentsLength += length;
+        }
+    }
+
+    /**
+     * xls记录处理：把BIFF8的单元格记录转为行缓冲中的单元格，行的开始、结束、空行补齐、投影交给SheetHandler，
+     * 单元格保存的文本与xlsx一致（数值为数字文本，共享字符串为索引，公式字符串结果为文本），取值时再解码
+     */
+    private class XlsHandler<T> implements HSSFListener {
+        // 公式缓存结果类型代码，与CellType的代码一致（CellType.forInt、getCode已废弃）
+        private static final int CACHED_RESULT_STRING = 1;
+        private static final int CACHED_RESULT_BOOLEAN = 4;
+        private static final int CACHED_RESULT_ERROR = 5;
+        private final Function<RowBuffer, T> rowMapper;
+        private final ThreeConsumer<Integer, Integer, T> rowHandler;
+        private final IntConsumer sheetEndHandler;
+        // 工作簿中的sheet页，按sheet页顺序
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        // 自定义数字格式：格式索引 -> 格式代码
+        private final Map<Integer, String> formats = new HashMap<>();
+        // 单元格样式：样式索引 -> 格式索引
+        private final List<Integer> xfFormats = new ArrayList<>();
+        // 共享字符串表
+        private SSTRecord sst;
+        // 第一个sheet页开始时按已读取的样式生成
+        private CellDecoder decoder;
+        // 按在文件中的位置排序的sheet页在工作簿中的序号（从1开始）
+        private int[] sheetIndexes;
+        // 子流嵌套深度：全局、sheet页为1，sheet页内嵌的图表为2
+        private int depth = 0;
+        // 已开始的sheet页子流数
+        private int sheetCount = 0;
+        // 选中的sheet页数
+        private int selectedSheets = 0;
+        // 当前sheet页，未选中时为null
+        private SheetHandler<T> sheet;
+        private SheetProgress progress;
+        // 当前sheet页已读到结束行
+        private boolean sheetStopped;
+        // 当前行号（从1开始），0表示没有未结束的行
+        private int currentRowNum = 0;
+        // 当前sheet页有行记录的行（从0开始），没有行记录的空行与xlsx一样由SheetHandler补齐
+        private final BitSet rowRecords = new BitSet();
+        // 结果为字符串的公式，值在随后的StringRecord中
+        private FormulaRecord stringFormula;
+        // 单元格文本缓冲，复用
+        private char[] chars = new char[64];
+
+        XlsHandler(Function<RowBuffer, T> rowMapper, ThreeConsumer<Integer, Integer, T> rowHandler, IntConsumer sheetEndHandler) {
+            this.rowMapper = rowMapper;
+            this.rowHandler = rowHandler;
+            this.sheetEndHandler = sheetEndHandler;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    this.startStream((BOFRecord) record);
+                    return;
+                case EOFRecord.sid:
+                    if (--this.depth == 0 && this.sheet != null) {
+                        this.endSheet();
+                    }
+                    return;
+                case BoundSheetRecord.sid:
+                    this.boundSheets.add((BoundSheetRecord) record);
+                    return;
+                case SSTRecord.sid:
+                    this.sst = (SSTRecord) record;
+                    return;
+                case FormatRecord.sid:
+                    FormatRecord format = (FormatRecord) record;
+                    this.formats.put(format.getIndexCode(), format.getFormatString());
+                    return;
+                case ExtendedFormatRecord.sid:
+                    this.xfFormats.add((int) ((ExtendedFormatRecord) record).getFormatIndex());
+                    return;
+                default:
+            }
+            // 只处理选中sheet页本身的记录，不处理内嵌图表
+            if (this.sheet == null || this.sheetStopped || this.depth != 1) {
+                return;
+            }
+            try {
+                this.processCell(record);
+            } catch (StopSheetException e) {
+                // 已读到结束行，忽略该sheet页剩余记录
+                this.sheetStopped = true;
+                this.currentRowNum = 0;
+                if (this.isLastSelected()) {
+                    this.endSheet();
+                    throw new StopWorkbookException();
+                }
+            }
+        }
+
+        private void processCell(Record record) throws StopSheetException {
+            if (record instanceof LastCellOfRowDummyRecord) {
+                // 缺失的行也会有行结束记录，只处理有单元格或有行记录（没有单元格也交付）的行
+                int row = ((LastCellOfRowDummyRecord) record).getRow();
+                if (this.currentRowNum == row + 1 || this.rowRecords.get(row)) {
+                    this.toRow(row + 1);
+                    this.currentRowNum = 0;
+                    this.sheet.endRow();
+                }
+                return;
+            }
+            switch (record.getSid()) {
+                case RowRecord.sid:
+                    this.rowRecords.set(((RowRecord) record).getRowNumber());
+                    break;
+                case DimensionsRecord.sid:
+                    // lastCol为最后一列的下一列（从0开始），即列数
+                    this.sheet.longest = ((DimensionsRecord) record).getLastCol();
+                    break;
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    this.cell(number, RowBuffer.NUMBER, numberText(number.getValue()));
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    this.cell(label, RowBuffer.SHARED_STRING, Integer.toString(label.getSSTIndex()));
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord inline = (LabelRecord) record;
+                    this.cell(inline, RowBuffer.INLINE_STRING, inline.getValue());
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        this.cell(boolErr, RowBuffer.BOOLEAN, boolErr.getBooleanValue() ? "1" : "0");
+                    } else {
+                        this.cell(boolErr, RowBuffer.ERROR, FormulaError.forInt(boolErr.getErrorValue()).getString());
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    this.formula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (this.stringFormula != null) {
+                        this.cell(this.stringFormula, RowBuffer.FORMULA_STRING, ((StringRecord) record).getString());
+                        this.stringFormula = null;
+                    }
+                    break;
+                default:
+            }
+        }
+
+        /**
+         * 子流开始：全局子流之后依次为各sheet页的子流
+         */
+        private void startStream(BOFRecord bof) {
+            if (++this.depth != 1 || bof.getType() == BOFRecord.TYPE_WORKBOOK) {
+                return;
+            }
+            if (this.sheetIndexes == null) {
+                // sheet页子流在文件中的顺序可能与sheet页顺序不同
+                BoundSheetRecord[] ordered = BoundSheetRecord.orderByBofPosition(this.boundSheets);
+                this.sheetIndexes = new int[ordered.length];
+                for (int i = 0; i < ordered.length; i++) {
+                    this.sheetIndexes[i] = this.boundSheets.indexOf(ordered[i]) + 1;
+                }
+            }
+            int position = this.sheetCount++;
+            if (position >= this.sheetIndexes.length || bof.getType() != BOFRecord.TYPE_WORKSHEET) {
+                return;
+            }
+            int sheetIndex = this.sheetIndexes[position];
+            String sheetName = this.boundSheets.get(sheetIndex - 1).getSheetname();
+            if (!isSelected(sheetIndex, sheetName)) {
+                return;
+            }
+            if (this.decoder == null) {
+                IntFunction<String> sharedStrings = interned(idx -> this.sst.getString(idx).getString());
+                this.decoder = new CellDecoder(sharedStrings, toDateFormats(), autoDetectDate ? this.toDateStyles() : null);
+            }
+            this.selectedSheets++;
+            this.sheet = new SheetHandler<>(new RowBuffer(this.decoder, sheetIndex), this.rowMapper, this.rowHandler, sheetIndex, beginRowNum, endRowNum);
+            this.sheetStopped = false;
+            this.currentRowNum = 0;
+            this.rowRecords.clear();
+            this.stringFormula = null;
+            if (listener != null) {
+                this.progress = new SheetProgress(listener, progressRows, sheetIndex, null, -1);
+                this.sheet.progress = this.progress;
+                listener.onSheetStart(sheetIndex, sheetName, -1);
+            }
+        }
+
+        /**
+         * sheet页结束
+         */
+        private void endSheet() {
+            if (this.currentRowNum > 0) {
+                try {
+                    this.sheet.endRow();
+                } catch (StopSheetException e) {
+                    // 已是最后一行
+                }
+            }
+            if (this.progress != null) {
+                this.progress.end();
+                this.progress = null;
+            }
+            if (this.sheetEndHandler != null) {
+                this.sheetEndHandler.accept(this.sheet.sheetIndex);
+            }
+            this.sheet = null;
+            if (!this.sheetStopped && this.isLastSelected()) {
+                throw new StopWorkbookException();
+            }
         }
 
-        @Override
-        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-            if (qName.equals("numFmt")) {
-                currentNumFmtId = Integer.parseInt(attributes.getValue("numFmtId"));
-                formatCodeBuilder = new StringBuilder();
-            } else if (qName.equals("cellXfs")) {
-                xfIndex = -1;
-            } else if (qName.equals("xf")) {
-                xfIndex++;
-                String numFmtIdStr = attributes.getValue("numFmtId");
-                if (numFmtIdStr != null) {
-                    int numFmtId = Integer.parseInt(numFmtIdStr);
-                    xfToNumFmt.put(xfIndex, numFmtId);
+        /**
+         * 当前sheet页之后没有选中的sheet页
+         */
+        private boolean isLastSelected() {
+            for (int position = this.sheetCount; position < this.sheetIndexes.length; position++) {
+                int sheetIndex = this.sheetIndexes[position];
+                if (isSelected(sheetIndex, this.boundSheets.get(sheetIndex - 1).getSheetname())) {
+                    return false;
                 }
             }
+            return true;
         }
 
-        @Override
-        public void characters(char[] ch, int start, int length) throws SAXException {
-            if (currentNumFmtId >= 0) {
-                formatCodeBuilder.append(ch, start, length);
+        /**
+         * 样式索引 -> 是否为日期格式，规则与xlsx相同：内置日期格式，或格式代码为日期格式的自定义格式
+         */
+        private boolean[] toDateStyles() {
+            boolean[] dateStyles = new boolean[this.xfFormats.size()];
+            for (int styleIndex = 0; styleIndex < dateStyles.length; styleIndex++) {
+                int formatIndex = this.xfFormats.get(styleIndex);
+                dateStyles[styleIndex] = BUILTIN_DATE_FORMAT_IDS.contains(formatIndex) || isDateFormat(this.formats.get(formatIndex));
             }
+            return dateStyles;
         }
 
-        @Override
-        public void endElement(String uri, String localName, String qName) throws SAXException {
-            if (qName.equals("numFmt")) {
-                String formatCode = formatCodeBuilder.toString().trim();
-                boolean isDate = isDateFormat(formatCode);
-                numFmtToDateFlag.put(currentNumFmtId, isDate);
-                currentNumFmtId = -1;
-            } else if (qName.equals("styleSheet")) {
-                // 样式表解析完成，建立样式索引 -> 是否为日期格式的映射
-                // 1. 先将内置日期格式 ID 加入缓存
-                for (Integer fmtId : BUILTIN_DATE_FORMAT_IDS) {
-                    numFmtToDateFlag.put(fmtId, true);
-                }
-                // 2. 将样式索引转换为是否为日期格式
-                for (Map.Entry<Integer, Integer> entry : xfToNumFmt.entrySet()) {
-                    int styleIndex = entry.getKey();
-                    int numFmtId = entry.getValue();
-                    Boolean isDate = numFmtToDateFlag.get(numFmtId);
-                    if (isDate != null && isDate) {
-                        styleToDateFlag.put(styleIndex, true);
-                    }
-                }
+        private void formula(FormulaRecord formula) throws StopSheetException {
+            if (formula.hasCachedResultString()) {
+                // 结果在随后的StringRecord中
+                this.toRow(formula.getRow() + 1);
+                this.stringFormula = formula;
+                return;
+            }
+            switch (formula.getCachedResultType()) {
+                case CACHED_RESULT_BOOLEAN:
+                    this.cell(formula, RowBuffer.BOOLEAN, formula.getCachedBooleanValue() ? "1" : "0");
+                    break;
+                case CACHED_RESULT_ERROR:
+                    this.cell(formula, RowBuffer.ERROR, FormulaError.forInt(formula.getCachedErrorValue()).getString());
+                    break;
+                case CACHED_RESULT_STRING:
+                    // 结果为空字符串时没有StringRecord
+                    this.cell(formula, RowBuffer.FORMULA_STRING, "");
+                    break;
+                default:
+                    this.cell(formula, RowBuffer.NUMBER, numberText(formula.getValue()));
             }
         }
+
+        /**
+         * 切换到单元格所在的行，上一行未结束时先结束
+         */
+        private void toRow(int rowNum) throws StopSheetException {
+            if (this.currentRowNum == rowNum) {
+                return;
+            }
+            if (this.currentRowNum > 0) {
+                this.currentRowNum = 0;
+                this.sheet.endRow();
+            }
+            this.sheet.startRow(rowNum);
+            this.currentRowNum = rowNum;
+        }
+
+        /**
+         * 保存单元格，范围外的行、未投影的列跳过
+         */
+        private void cell(CellValueRecordInterface cell, byte type, String text) throws StopSheetException {
+            this.toRow(cell.getRow() + 1);
+            int slot = this.sheet.slotOf(cell.getColumn() + 1);
+            if (slot == 0) {
+                return;
+            }
+            int length = text.length();
+            if (length > this.chars.length) {
+                this.chars = new char[Math.max(this.chars.length * 2, length)];
+            }
+            text.getChars(0, length, this.chars, 0);
+            this.sheet.row.setCell(slot, type, cell.getXFIndex(), this.chars, length);
+        }
+    }
+
+    /**
+     * xls数值转为文本：整数不带小数部分，与Excel保存的xlsx一致；不使用科学计数法
+     */
+    static String numberText(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        String text = Double.toString(value);
+        return text.indexOf('E') < 0 ? text : BigDecimal.valueOf(value).toPlainString();
     }
 
-    private class SheetHandler extends DefaultHandler {
+    /**
+     * 单元格解码：共享字符串取值、日期列格式化。同一次解析的所有线程共用，只读
+     */
+    private static class CellDecoder {
         //取SST 的索引对应的值
-        private SharedStringsTable sst;
-        // 每行数据读完就执行
-        private ThreeConsumer<Integer, Integer, List<String>> rowHandler;
-        // 第几个sheet页，从1开始
-        private int sheetIndex;
-        // 读取excel内容起始行
-        private int beginRowNum;
-        // 手动配置的日期列
-        private Map<Integer, String> dateColumnFormats;
-        // 是否自动检测日期格式
-        private boolean autoDetectDate;
-        // 样式索引 -> 是否为日期格式的缓存
-        private Map<Integer, Boolean> dateFormatCache;
-        // 当前单元格列号（从1开始）
-        private int currentColumnIndex = 0;
-        // 当前单元格样式索引（s属性）
-        private int currentStyleIndex = -1;
+        private final IntFunction<String> sharedStrings;
+        // 手动配置的日期列：列号 -> 编译好的日期格式，未配置的列为null，相同格式共用
+        private final ExcelDateFormatter[] dateFormatters;
+        // 默认日期时间格式
+        private final ExcelDateFormatter defaultDateFormatter = new ExcelDateFormatter(DEFAULT_DATETIME_FORMAT);
+        // 样式索引 -> 是否为日期格式，未开启自动检测时为null
+        private final boolean[] dateStyles;
 
-        public SheetHandler(SharedStringsTable sst, ThreeConsumer<Integer, Integer, List<String>> rowHandler, int sheetIndex, int beginRowNum, Map<Integer, String> dateColumnFormats, boolean autoDetectDate, Map<Integer, Boolean> dateFormatCache) {
-            this.sst = sst;
-            this.rowHandler = rowHandler;
-            this.sheetIndex = sheetIndex;
-            this.beginRowNum = beginRowNum;
-            this.dateColumnFormats = dateColumnFormats;
-            this.autoDetectDate = autoDetectDate;
-            this.dateFormatCache = dateFormatCache;
+        CellDecoder(IntFunction<String> sharedStrings, String[] dateFormats, boolean[] dateStyles) {
+            this.sharedStrings = sharedStrings;
+            this.dateStyles = dateStyles;
+            // 每种格式只编译一次
+            Map<String, ExcelDateFormatter> compiled = new HashMap<>();
+            compiled.put(DEFAULT_DATETIME_FORMAT, this.defaultDateFormatter);
+            this.dateFormatters = new ExcelDateFormatter[dateFormats.length];
+            for (int column = 0; column < dateFormats.length; column++) {
+                if (dateFormats[column] != null) {
+                    this.dateFormatters[column] = compiled.computeIfAbsent(dateFormats[column], ExcelDateFormatter::new);
+                }
+            }
         }
 
         /**
-         * 存储cell标签下v标签包裹的字符文本内容
-         * 在v标签开始后，解析器自动调用characters()保存到 lastContents
-         * 【但】当cell标签的属性 s是 t时, 表示取到的lastContents是 SharedStringsTable 的index值
-         * 需要在v标签结束时根据 index(lastContents)获取一次真正的值
+         * 手动配置的日期格式
+         * @param column 列号
+         * @return 日期格式，未配置时为null
          */
-        private String lastContents;
-        //有效数据矩形区域,A1:Y2
-        private String dimension;
-        //根据dimension得出每行的数据长度
-        private int longest;
-        //上个有内容的单元格id，判断空单元格
-        private String lastCellid;
-        //上一行id, 判断空行
-        private String lastRowid;
-        // 判断单元格cell的c标签下是否有v，否则可能数据错位
-        private boolean hasV = false;
-        //行数据保存
-        private List<String> currentRow;
-        //单元格内容是SST 的索引
-        private boolean isSSTIndex = false;
+        ExcelDateFormatter columnDateFormatter(int column) {
+            return column < dateFormatters.length ? dateFormatters[column] : null;
+        }
 
+        /**
+         * 单元格的日期格式：1. 手动配置的日期列；2. 自动检测为日期格式的样式使用默认日期时间格式
+         * @param column 列号
+         * @param styleIndex 样式索引
+         * @return 日期格式，不是日期单元格时为null
+         */
+        ExcelDateFormatter dateFormatter(int column, int styleIndex) {
+            ExcelDateFormatter formatter = this.columnDateFormatter(column);
+            if (formatter != null) {
+                return formatter;
+            }
+            if (dateStyles != null && styleIndex >= 0 && styleIndex < dateStyles.length && dateStyles[styleIndex]) {
+                return this.defaultDateFormatter;
+            }
+            return null;
+        }
+    }
 
-        @Override
-        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+    /**
+     * 行缓冲：按列号保存单元格类型、样式和原始文本（所有单元格的文本连续存放在一个复用的字符数组中），
+     * 每行复用，取值时才解码。同时是{@link RowView}的实现
+     */
+    private static class RowBuffer implements RowView {
+        /**
+         * 单元格类型
+         */
+        static final byte BLANK = 0;
+        static final byte NUMBER = 1;
+        static final byte SHARED_STRING = 2;
+        static final byte INLINE_STRING = 3;
+        static final byte FORMULA_STRING = 4;
+        static final byte BOOLEAN = 5;
+        static final byte ERROR = 6;
+        static final byte ISO_DATE = 7;
 
-            lastContents = "";
-            if (qName.equals("dimension")) {
-                dimension = attributes.getValue("ref");
-                longest = covertRowIdToInt(dimension.substring(dimension.indexOf(":") + 1));
-            }
-            //行开始
-            if (qName.equals("row")) {
-                String rowNum = attributes.getValue("r");
-                //判断空行
-                if (lastRowid != null) {
-                    //与上一行相差2, 说明中间有空行
-                    int gap = Integer.parseInt(rowNum) - Integer.parseInt(lastRowid);
-                    if (gap > 1) {
-                        gap -= 1;
-                        while (gap > 0) {
-                            if (this.beginRowNum < Integer.valueOf(rowNum)-1) {
-                                rowHandler.accept(sheetIndex, Integer.parseInt(rowNum)-1, new ArrayList<>());
-                            }
-                            gap--;
-                        }
-                    }
-                }
+        private final CellDecoder decoder;
+        private final int sheetIndex;
+        private int rowIndex;
+        // 列数（按dimension补齐后）
+        private int size;
+        // 最后一个单元格的列号
+        private int lastColumn;
+        // 以下数组下标为列号
+        private byte[] types = new byte[32];
+        private int[] styles = new int[32];
+        private int[] starts = new int[32];
+        private int[] lengths = new int[32];
+        // 单元格原始文本
+        private char[] chars = new char[512];
+        private int charsLength;
+        // 复制出的视图中已取出的共享字符串，下标为列号
+        private String[] texts;
+        // 投影时行缓冲的列号 -> 原始列号（下标从0开始），用于取日期列配置；为null时不投影
+        private int[] sourceColumns;
+
+        RowBuffer(CellDecoder decoder, int sheetIndex) {
+            this.decoder = decoder;
+            this.sheetIndex = sheetIndex;
+        }
 
-                lastRowid = attributes.getValue("r");
-                currentRow = new ArrayList<>();
+        /**
+         * 单元格t属性转为单元格类型
+         */
+        static byte cellType(String t) {
+            if (t == null) {
+                return NUMBER;
             }
-            if (qName.equals("c")) {
-                String rowId = attributes.getValue("r");
+            switch (t) {
+                case "s":
+                    return SHARED_STRING;
+                case "inlineStr":
+                    return INLINE_STRING;
+                case "str":
+                    return FORMULA_STRING;
+                case "b":
+                    return BOOLEAN;
+                case "e":
+                    return ERROR;
+                case "d":
+                    return ISO_DATE;
+                default:
+                    return NUMBER;
+            }
+        }
 
-                //空单元判断，添加空字符到list
-                if (lastCellid != null) {
-                    int gap = covertRowIdToInt(rowId) - covertRowIdToInt(lastCellid);
-                    for (int i = 0; i < gap - 1; i++) {
-                        currentRow.add("");
-                    }
-                } else {
-                    //第一个单元格可能不是在第一列
-                    if (!"A1".equals(rowId)) {
-                        for (int i = 0; i < covertRowIdToInt(rowId) - 1; i++) {
-                            currentRow.add("");
-                        }
-                    }
-                }
-                lastCellid = rowId;
-                // 记录当前单元格列号
-                currentColumnIndex = covertRowIdToInt(rowId);
+        /**
+         * 设置投影列，之后按在投影中的位置保存单元格
+         * @param sourceColumns 投影的原始列号，按交付顺序
+         */
+        void project(int[] sourceColumns) {
+            this.sourceColumns = sourceColumns;
+        }
 
-                // 获取样式索引（s属性）
-                String styleAttr = attributes.getValue("s");
-                currentStyleIndex = styleAttr != null ? Integer.parseInt(styleAttr) : -1;
+        /**
+         * 原始列号，用于取日期列配置
+         */
+        private int sourceColumn(int col) {
+            return this.sourceColumns == null ? col : this.sourceColumns[col - 1];
+        }
 
-                //判断单元格的值是SST 的索引，不能直接characters方法取值
-                if (attributes.getValue("t") != null && attributes.getValue("t").equals("s")) {
-                    isSSTIndex = true;
-                } else {
-                    isSSTIndex = false;
-                }
+        /**
+         * 开始新的一行
+         */
+        void reset(int rowIndex) {
+            Arrays.fill(this.types, 0, this.lastColumn + 1, BLANK);
+            this.rowIndex = rowIndex;
+            this.lastColumn = 0;
+            this.size = 0;
+            this.charsLength = 0;
+        }
+
+        /**
+         * 保存单元格
+         */
+        void setCell(int column, byte type, int style, char[] value, int length) {
+            if (column >= this.types.length) {
+                int capacity = Math.max(this.types.length * 2, column + 1);
+                this.types = Arrays.copyOf(this.types, capacity);
+                this.styles = Arrays.copyOf(this.styles, capacity);
+                this.starts = Arrays.copyOf(this.starts, capacity);
+                this.lengths = Arrays.copyOf(this.lengths, capacity);
+            }
+            if (this.charsLength + length > this.chars.length) {
+                this.chars = Arrays.copyOf(this.chars, Math.max(this.chars.length * 2, this.charsLength + length));
+            }
+            System.arraycopy(value, 0, this.chars, this.charsLength, length);
+            this.types[column] = type;
+            this.styles[column] = style;
+            this.starts[column] = this.charsLength;
+            this.lengths[column] = length;
+            this.charsLength += length;
+            this.lastColumn = Math.max(this.lastColumn, column);
+        }
+
+        /**
+         * 行结束，列数不足width时补齐
+         */
+        void finish(int width) {
+            this.size = Math.max(this.lastColumn, width);
+        }
+
+        /**
+         * 行结束，稀疏模式：列数为最后一个有内容的单元格的列号
+         */
+        void finishSparse() {
+            int col = this.lastColumn;
+            while (col > 0 && this.isEmpty(col)) {
+                col--;
             }
+            this.size = col;
         }
 
         @Override
-        public void endElement(String uri, String localName, String qName) throws SAXException {
+        public List<String> toList() {
+            List<String> row = new ArrayList<>(Math.max(this.size, 10));
+            for (int col = 1; col <= this.size; col++) {
+                row.add(this.getString(col));
+            }
+            return row;
+        }
 
-            //行结束,存储一行数据
-            if (qName.equals("row")) {
+        private boolean isEmpty(int col) {
+            return col < 1 || col > this.lastColumn || this.types[col] == BLANK || this.lengths[col] == 0;
+        }
 
-                //判断最后一个单元格是否在最后，补齐列数
-                //【注意】有的单元格只修改单元格格式，而没有内容，会出现c标签下没有v标签，导致currentRow少
-                if (covertRowIdToInt(lastCellid) < longest) {
-                    int min = Math.min(currentRow.size(), covertRowIdToInt(lastCellid));
-                    for (int i = 0; i < longest - min; i++) {
-                        currentRow.add("");
-                    }
+        /**
+         * 共享字符串单元格的索引，用于按索引缓存；不是共享字符串或按日期格式化时为-1
+         */
+        int sharedStringIndex(int col) {
+            if (this.isEmpty(col) || this.types[col] != SHARED_STRING || this.texts != null
+                    || this.decoder.dateFormatter(this.sourceColumn(col), this.styles[col]) != null) {
+                return -1;
+            }
+            try {
+                return parseIndex(this.chars, this.starts[col], this.lengths[col]);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * 单元格原始文本，共享字符串取出真正的值
+         */
+        private String rawString(int col) {
+            if (this.types[col] == SHARED_STRING) {
+                if (this.texts != null) {
+                    return this.texts[col];
                 }
-                if (this.beginRowNum < Integer.parseInt(lastRowid)) {
-                    rowHandler.accept(sheetIndex, Integer.valueOf(lastRowid), currentRow);
+                try {
+                    return this.decoder.sharedStrings.apply(parseIndex(this.chars, this.starts[col], this.lengths[col]));
+                } catch (NumberFormatException ex) {
+                    log.warn("数字格式化失败！数据：" + new String(this.chars, this.starts[col], this.lengths[col]), ex);
                 }
-                lastCellid = null;
             }
+            return new String(this.chars, this.starts[col], this.lengths[col]);
+        }
 
-            //单元格结束，没有v时需要补位
-            if (qName.equals("c")){
-                if (!hasV) {
-                    //单元格的值是SST 的索引
-                    if (isSSTIndex) {
-                        String sstIndex = lastContents.toString();
-                        try {
-                            int idx = Integer.parseInt(sstIndex);
-                            XSSFRichTextString rtss = new XSSFRichTextString(
-                                    sst.getEntryAt(idx));
-                            lastContents = rtss.toString();
-                            processCellValue(lastContents);
-                        } catch (NumberFormatException ex) {
-                            log.warn("数字格式化失败！数据：" + lastContents, ex);
-                        }
-                    } else {
-                        processCellValue(lastContents);
-                    }
-                }
-                hasV = false;
+        @Override
+        public int getSheetIndex() {
+            return this.sheetIndex;
+        }
+
+        @Override
+        public int getRowIndex() {
+            return this.rowIndex;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public boolean isBlank(int col) {
+            if (this.isEmpty(col)) {
+                return true;
             }
+            return this.types[col] == SHARED_STRING && this.rawString(col).isEmpty();
+        }
 
-            //单元格内容标签结束，characters方法会被调用处理内容
-            if (qName.equals("v")) {
-                hasV = true;
-                //单元格的值是SST 的索引
-                if (isSSTIndex) {
-                    String sstIndex = lastContents.toString();
-                    try {
-                        int idx = Integer.parseInt(sstIndex);
-                        XSSFRichTextString rtss = new XSSFRichTextString(
-                                sst.getEntryAt(idx));
-                        lastContents = rtss.toString();
-                        processCellValue(lastContents);
-                    } catch (NumberFormatException ex) {
-                        log.warn("数字格式化失败！数据：" + lastContents, ex);
-                    }
-                } else {
-                    processCellValue(lastContents);
+        @Override
+        public String getString(int col) {
+            if (col < 1 || col > this.lastColumn || this.types[col] == BLANK) {
+                return "";
+            }
+            ExcelDateFormatter formatter = this.decoder.dateFormatter(this.sourceColumn(col), this.styles[col]);
+            if (formatter == null) {
+                return this.rawString(col);
+            }
+            try {
+                if (this.types[col] == NUMBER) {
+                    // 数值直接从原始文本解析，不创建字符串
+                    return formatter.format(parseDouble(this.chars, this.starts[col], this.lengths[col]));
                 }
+                return formatter.format(Double.parseDouble(this.rawString(col)));
+            } catch (NumberFormatException e) {
+                // 如果无法解析为数字，直接返回原始值
+                return this.rawString(col);
+            }
+        }
 
+        @Override
+        public double getDouble(int col) {
+            if (this.isEmpty(col)) {
+                return 0;
             }
+            if (this.types[col] == SHARED_STRING) {
+                return Double.parseDouble(this.rawString(col).trim());
+            }
+            return parseDouble(this.chars, this.starts[col], this.lengths[col]);
+        }
 
+        @Override
+        public long getLong(int col) {
+            if (this.isEmpty(col)) {
+                return 0;
+            }
+            if (this.types[col] == SHARED_STRING) {
+                return new BigDecimal(this.rawString(col).trim()).longValueExact();
+            }
+            return parseLong(this.chars, this.starts[col], this.lengths[col]);
         }
 
+        @Override
+        public BigDecimal getBigDecimal(int col) {
+            if (this.isEmpty(col)) {
+                return null;
+            }
+            if (this.types[col] == SHARED_STRING) {
+                return new BigDecimal(this.rawString(col).trim());
+            }
+            return new BigDecimal(this.chars, this.starts[col], this.lengths[col]);
+        }
 
-        /**
-         * 获取element的文本数据
-         *
-         * @see ContentHandler#characters
-         */
         @Override
-        public void characters(char[] ch, int start, int length)
-                throws SAXException {
-            lastContents += new String(ch, start, length);
+        public LocalDateTime getLocalDateTime(int col) {
+            return this.getLocalDateTime(col, null);
         }
 
-        /**
-         * 处理单元格值，如果是日期列则进行格式化转换
-         * @param value 单元格原始值
-         */
-        private void processCellValue(String value) {
-            // 1. 检查手动配置的日期列
-            if (dateColumnFormats.containsKey(currentColumnIndex)) {
-                String format = dateColumnFormats.get(currentColumnIndex);
-                try {
-                    double excelDate = Double.parseDouble(value);
-                    currentRow.add(formatExcelDate(excelDate, format));
-                } catch (NumberFormatException e) {
-                    // 如果无法解析为数字，直接添加原始值
-                    currentRow.add(value);
-                }
-                return;
+        @Override
+        public LocalDateTime getLocalDateTime(int col, DateTimeFormatter textFormatter) {
+            if (this.isEmpty(col)) {
+                return null;
+            }
+            byte type = this.types[col];
+            if (type == NUMBER) {
+                return ExcelDateFormatter.toLocalDateTime(parseDouble(this.chars, this.starts[col], this.lengths[col]));
             }
+            String value = this.rawString(col).trim();
+            if (type == ISO_DATE) {
+                // ISO 8601，可能只有日期部分
+                return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+            }
+            if (textFormatter == null) {
+                ExcelDateFormatter formatter = this.decoder.columnDateFormatter(this.sourceColumn(col));
+                textFormatter = (formatter != null ? formatter : this.decoder.defaultDateFormatter).getFormatter();
+            }
+            TemporalAccessor parsed = textFormatter.parseBest(value, LocalDateTime::from, LocalDate::from);
+            return parsed instanceof LocalDate ? ((LocalDate) parsed).atStartOfDay() : (LocalDateTime) parsed;
+        }
 
-            // 2. 检查自动检测日期格式
-            if (autoDetectDate && currentStyleIndex >= 0 && dateFormatCache != null) {
-                Boolean isDateFormat = dateFormatCache.get(currentStyleIndex);
-                if (isDateFormat != null && isDateFormat) {
-                    try {
-                        double excelDate = Double.parseDouble(value);
-                        currentRow.add(formatExcelDate(excelDate, DEFAULT_DATETIME_FORMAT));
-                    } catch (NumberFormatException e) {
-                        currentRow.add(value);
-                    }
-                    return;
+        @Override
+        public RowBuffer copy() {
+            RowBuffer copy = new RowBuffer(this.decoder, this.sheetIndex);
+            int length = this.lastColumn + 1;
+            copy.rowIndex = this.rowIndex;
+            copy.size = this.size;
+            copy.lastColumn = this.lastColumn;
+            copy.types = Arrays.copyOf(this.types, length);
+            copy.styles = Arrays.copyOf(this.styles, length);
+            copy.starts = Arrays.copyOf(this.starts, length);
+            copy.lengths = Arrays.copyOf(this.lengths, length);
+            copy.chars = Arrays.copyOf(this.chars, this.charsLength);
+            copy.charsLength = this.charsLength;
+            copy.sourceColumns = this.sourceColumns;
+            // 先取出共享字符串，复制出的视图不再依赖解析过程中打开的SST
+            copy.texts = new String[length];
+            for (int col = 1; col < length; col++) {
+                if (this.types[col] == SHARED_STRING) {
+                    copy.texts[col] = this.rawString(col);
                 }
             }
+            return copy;
+        }
 
-            // 3. 非日期列，直接添加原始值
-            currentRow.add(value);
+        @Override
+        public String toString() {
+            return this.toList().toString();
         }
+    }
 
-        /**
-         * 列号转数字   AB7-->28 第28列
-         *
-         * @param cellId 单元格定位id，行列号，AB7
-         * @return
-         */
-        public int covertRowIdToInt(String cellId) {
-            StringBuilder sb = new StringBuilder();
-            String column = "";
-            //从cellId中提取列号
-            for(char c:cellId.toCharArray()){
-                if (Character.isAlphabetic(c)){
-                    sb.append(c);
-                }else{
-                    column = sb.toString();
-                }
-            }
-            //列号字符转数字
-            int result = 0;
-            for (char c : column.toCharArray()) {
+    /**
+     * 列号转数字   AB7-->28 第28列，直接在原字符串上解析，不产生中间对象
+     *
+     * @param cellId 单元格定位id，行列号，AB7
+     * @param from 从cellId的第几个字符开始解析
+     * @return 列号，从1开始
+     */
+    static int columnOf(String cellId, int from) {
+        int result = 0;
+        for (int i = from; i < cellId.length(); i++) {
+            char c = cellId.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
                 result = result * 26 + (c - 'A') + 1;
+            } else if (c >= 'a' && c <= 'z') {
+                result = result * 26 + (c - 'a') + 1;
+            } else {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从字符缓冲区解析非负整数（SST索引），不创建字符串
+     * @param chars 字符缓冲区
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 整数值
+     */
+    static int parseIndex(char[] chars, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        // 去掉首尾空白
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            // 空值或超出int范围的交给Integer.parseInt处理（抛出NumberFormatException）
+            return Integer.parseInt(new String(chars, start, end - start));
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + new String(chars, offset, length) + "\"");
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * 从字符缓冲区解析double，不创建字符串。
+     * 有效数字不超过2^53且小数位不超过22位的普通小数（Excel保存的数值绝大多数如此）直接计算，结果与Double.parseDouble一致；
+     * 其余（科学计数法等）交给Double.parseDouble
+     */
+    static double parseDouble(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean hasDigit = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return Double.parseDouble(new String(chars, offset, length));
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) {
+                    scale++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return Double.parseDouble(new String(chars, offset, length));
+            }
+        }
+        if (!hasDigit || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(chars, offset, length));
+        }
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * 从字符缓冲区解析long，不创建字符串；带小数点或科学计数法的交给BigDecimal精确转换
+     */
+    static long parseLong(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return new BigDecimal(new String(chars, offset, length).trim()).longValueExact();
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return new BigDecimal(new String(chars, offset, length).trim()).longValueExact();
             }
-            return result;
+            result = result * 10 + digit;
         }
+        return negative ? -result : result;
     }
 
 }
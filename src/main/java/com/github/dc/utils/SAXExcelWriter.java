@@ -94,6 +94,18 @@ public class SAXExcelWriter {
      * @param getDataFunction 传参当前批次，不分批处理时为-1，返回当前批次数据List
      */
     public void run(Function<Integer, List<Map<String, Object>>> getDataFunction) {
+        try {
+            this.write(getDataFunction);
+        } catch (Exception e) {
+            log.error("写入excel异常！", e);
+        }
+    }
+
+    /**
+     * 执行写入Excel，取数据或写入失败时抛出异常，供需要确认写完的调用方使用
+     * @param getDataFunction 传参当前批次，不分批处理时为-1，返回当前批次数据List
+     */
+    void write(Function<Integer, List<Map<String, Object>>> getDataFunction) throws Exception {
         long startTime = System.currentTimeMillis();
         int total = 0;
         // 1.创建工作簿，设置内存窗口大小（保留最近rowAccessWindowSize行在内存）
@@ -116,8 +128,6 @@ public class SAXExcelWriter {
             workbook.write(this.os);
             // 清理临时文件
             workbook.dispose();
-        } catch (Exception e) {
-            log.error("写入excel异常！", e);
         } finally {
             BigDecimal consumingTime = BigDecimal.valueOf((System.currentTimeMillis() - startTime)).divide(BigDecimal.valueOf(1000), 3, RoundingMode.HALF_UP);
             if (consumingTime.equals(BigDecimal.ZERO)) {
@@ -0,0 +1,121 @@
+package com.github.dc.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ *     共享字符串驻留：按共享字符串索引缓存取出的字符串，同一个值的单元格共用一个String实例。
+ *     开放寻址表，最多缓存maxEntries个，满了之后不再加入，只查已缓存的；
+ *     一个索引第二次取值时才加入（只出现一次的值，如高基数列，不占位置）。
+ *     表项不可变，用CAS写入，多线程并发使用无需加锁
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 21:20
+ */
+class SharedStringInterner implements IntFunction<String> {
+
+    /**
+     * 取共享字符串
+     */
+    private final IntFunction<String> sharedStrings;
+    /**
+     * 最多缓存的字符串个数
+     */
+    private final int maxEntries;
+    /**
+     * 表，容量为maxEntries的2倍以上的2的幂，负载不超过一半
+     */
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * 最近一次取值的索引+1（直接映射，冲突时覆盖），再次取到同一索引时才加入表；并发读写不加锁，只影响是否加入
+     */
+    private final int[] seen;
+
+    SharedStringInterner(IntFunction<String> sharedStrings, int maxEntries) {
+        this.sharedStrings = sharedStrings;
+        this.maxEntries = maxEntries;
+        int capacity = Integer.highestOneBit(Math.max(maxEntries, 8) * 2 - 1) << 1;
+        this.table = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.seen = new int[capacity];
+    }
+
+    @Override
+    public String apply(int index) {
+        int slot = hash(index) & this.mask;
+        for (int probes = 0; probes <= this.mask; probes++) {
+            Entry entry = this.table.get(slot);
+            if (entry == null) {
+                break;
+            }
+            if (entry.index == index) {
+                return entry.value;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        String value = this.sharedStrings.apply(index);
+        if (this.size.get() >= this.maxEntries || value == null) {
+            return value;
+        }
+        int seenSlot = hash(index) & this.mask;
+        if (this.seen[seenSlot] != index + 1) {
+            this.seen[seenSlot] = index + 1;
+            return value;
+        }
+        return this.insert(index, value);
+    }
+
+    /**
+     * 加入表，其他线程已加入同一索引时返回已加入的实例
+     */
+    private String insert(int index, String value) {
+        Entry created = new Entry(index, value);
+        int slot = hash(index) & this.mask;
+        for (int probes = 0; probes <= this.mask; probes++) {
+            Entry entry = this.table.get(slot);
+            if (entry == null) {
+                if (this.size.incrementAndGet() > this.maxEntries) {
+                    this.size.decrementAndGet();
+                    return value;
+                }
+                if (this.table.compareAndSet(slot, null, created)) {
+                    return value;
+                }
+                this.size.decrementAndGet();
+                entry = this.table.get(slot);
+            }
+            if (entry.index == index) {
+                return entry.value;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return value;
+    }
+
+    /**
+     * 已缓存的字符串个数
+     */
+    int size() {
+        return this.size.get();
+    }
+
+    private static int hash(int index) {
+        int h = index * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry {
+        private final int index;
+        private final String value;
+
+        Entry(int index, String value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+}
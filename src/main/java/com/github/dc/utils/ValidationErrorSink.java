@@ -0,0 +1,196 @@
+package com.github.dc.utils;
+
+import com.github.dc.utils.pojo.ValidationError;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     校验错误收集：前maxInMemory个错误保存在内存中，之后的错误逐行写入临时文件，内存占用与错误总数无关。
+ *     可多线程并发加入；{@link #forEach(Consumer)}按加入顺序读取全部错误。使用完关闭，关闭时删除临时文件
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:20
+ */
+@Slf4j
+public class ValidationErrorSink implements Closeable {
+
+    /**
+     * 单元格文本保存的最大长度
+     */
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    private final int maxInMemory;
+    /**
+     * 临时文件目录，为null时使用java.io.tmpdir
+     */
+    private final File tempDir;
+    private final List<ValidationError> errors = new ArrayList<>();
+    /**
+     * 超出内存容量的错误写入的临时文件，未溢出时为null
+     */
+    private File spillFile;
+    private Writer spillWriter;
+    private long errorCount = 0;
+
+    /**
+     * @param maxInMemory 内存中最多保存的错误数
+     * @param tempDir 临时文件目录，为null时使用java.io.tmpdir
+     */
+    public ValidationErrorSink(int maxInMemory, File tempDir) {
+        if (maxInMemory < 0) {
+            throw new IllegalArgumentException("内存中保存的错误数不能小于0");
+        }
+        this.maxInMemory = maxInMemory;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 加入一个错误，单元格文本过长时截断
+     */
+    public synchronized void add(ValidationError error) {
+        String value = error.getValue();
+        if (value != null && value.length() > MAX_VALUE_LENGTH) {
+            error.setValue(value.substring(0, MAX_VALUE_LENGTH) + "...");
+        }
+        this.errorCount++;
+        if (this.errors.size() < this.maxInMemory) {
+            this.errors.add(error);
+            return;
+        }
+        try {
+            if (this.spillWriter == null) {
+                this.spillFile = File.createTempFile("validation-", ".err", this.tempDir);
+                this.spillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.spillFile), StandardCharsets.UTF_8), 64 * 1024);
+                log.debug("校验错误超过{}个，之后的错误写入临时文件【{}】", this.maxInMemory, this.spillFile.getAbsolutePath());
+            }
+            this.spillWriter.write(String.valueOf(error.getSheetIndex()));
+            this.spillWriter.write('\t');
+            this.spillWriter.write(String.valueOf(error.getRowIndex()));
+            this.spillWriter.write('\t');
+            this.spillWriter.write(String.valueOf(error.getColumn()));
+            this.spillWriter.write('\t');
+            this.spillWriter.write(escape(error.getRule()));
+            this.spillWriter.write('\t');
+            this.spillWriter.write(escape(error.getValue()));
+            this.spillWriter.write('\t');
+            this.spillWriter.write(escape(error.getMessage()));
+            this.spillWriter.write('\n');
+        } catch (IOException e) {
+            throw new IllegalStateException("写入校验错误临时文件失败", e);
+        }
+    }
+
+    /**
+     * 错误总数（含写入临时文件的）
+     */
+    public synchronized long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * 内存中的错误（前maxInMemory个）
+     */
+    public synchronized List<ValidationError> getErrors() {
+        return Collections.unmodifiableList(new ArrayList<>(this.errors));
+    }
+
+    /**
+     * 是否有错误写入了临时文件
+     */
+    public synchronized boolean isSpilled() {
+        return this.spillFile != null;
+    }
+
+    /**
+     * 按加入顺序读取全部错误：先是内存中的，再逐行读取临时文件
+     * @param consumer 错误处理
+     */
+    public synchronized void forEach(Consumer<ValidationError> consumer) throws IOException {
+        this.errors.forEach(consumer);
+        if (this.spillWriter == null) {
+            return;
+        }
+        this.spillWriter.flush();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.spillFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                consumer.accept(new ValidationError(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        unescape(fields[3]), unescape(fields[4]), unescape(fields[5])));
+            }
+        }
+    }
+
+    /**
+     * 删除临时文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.spillWriter == null) {
+            return;
+        }
+        try {
+            this.spillWriter.close();
+        } finally {
+            if (!this.spillFile.delete() && this.spillFile.exists()) {
+                log.debug("临时文件【{}】删除失败，将在JVM退出时删除", this.spillFile.getAbsolutePath());
+                this.spillFile.deleteOnExit();
+            }
+            this.spillWriter = null;
+            this.spillFile = null;
+        }
+    }
+
+    /**
+     * 转义反斜杠、制表符、换行，null写为\0
+     */
+    private static String escape(String s) {
+        if (s == null) {
+            return "\\0";
+        }
+        StringBuilder buf = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement = c == '\\' ? "\\\\" : c == '\t' ? "\\t" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : null;
+            if (replacement != null && buf == null) {
+                buf = new StringBuilder(s.length() + 16).append(s, 0, i);
+            }
+            if (buf != null) {
+                if (replacement != null) {
+                    buf.append(replacement);
+                } else {
+                    buf.append(c);
+                }
+            }
+        }
+        return buf == null ? s : buf.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.equals("\\0")) {
+            return null;
+        }
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder buf = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '\\' || i + 1 == s.length()) {
+                buf.append(c);
+                continue;
+            }
+            char next = s.charAt(++i);
+            buf.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.dc.utils.pojo;
+
+/**
+ * <p>
+ *     批量行处理，如JDBC批量插入
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 15:10
+ */
+@FunctionalInterface
+public interface BatchHandler {
+    /**
+     * 处理一批行数据
+     *
+     * @param batch 一批行数据，均来自同一个sheet页；该对象在回调返回后会被清空复用，需要保留时自行复制
+     */
+    void accept(RowBatch batch);
+}
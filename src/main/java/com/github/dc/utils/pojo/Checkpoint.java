@@ -0,0 +1,35 @@
+package com.github.dc.utils.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>
+ *     导入断点：已处理到的位置和文件指纹，续传时跳过该位置及之前的行
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 20:40
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Checkpoint {
+    /**
+     * 文件指纹（大小、修改时间、文件头校验值），续传时与当前文件比对
+     */
+    private String fingerprint;
+    /**
+     * 最后处理完的行所在的sheet页，从1开始
+     */
+    private int sheetIndex;
+    /**
+     * 最后处理完的行号，从1开始
+     */
+    private int rowIndex;
+    /**
+     * 已处理的总行数（含之前各次执行）
+     */
+    private long rows;
+}
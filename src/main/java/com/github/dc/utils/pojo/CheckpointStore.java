@@ -0,0 +1,31 @@
+package com.github.dc.utils.pojo;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ *     导入断点的存储，默认实现为本地文件（FileCheckpointStore），可按需存到数据库、Redis等
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 20:40
+ */
+public interface CheckpointStore {
+
+    /**
+     * 读取断点
+     * @return 断点，没有时为null
+     */
+    Checkpoint load() throws IOException;
+
+    /**
+     * 保存断点，覆盖之前的断点；保存失败时解析中止
+     * @param checkpoint 断点
+     */
+    void save(Checkpoint checkpoint) throws IOException;
+
+    /**
+     * 全部处理完成后删除断点
+     */
+    void clear() throws IOException;
+}
@@ -0,0 +1,249 @@
+package com.github.dc.utils.pojo;
+
+import java.util.*;
+
+/**
+ * <p>
+ *     列式数据块：同一个sheet页的若干行按列存放，数值列为基本类型数组，字符串列为字典编码，空单元格记在各列的空值位图中。
+ *     由解析器填充并在处理完后清空复用，数组长度为块容量，有效数据为前{@link #size()}个；列号从1开始，与读取的列顺序一致
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 21:00
+ */
+public class ColumnChunk {
+    /**
+     * 第几个sheet页，从1开始
+     */
+    private int sheetIndex;
+    /**
+     * 行数
+     */
+    private int size;
+    /**
+     * 各行行号
+     */
+    private final int[] rowIndexes;
+    /**
+     * 各列类型，下标为列号-1
+     */
+    private final ColumnType[] types;
+    /**
+     * 各列数据，按类型只有一种非null
+     */
+    private final double[][] doubles;
+    private final long[][] longs;
+    private final int[][] codes;
+    /**
+     * 各列空值位图，第i行为空时第i位为1
+     */
+    private final long[][] nulls;
+    /**
+     * 字符串列的字典：编码 -> 字符串、字符串 -> 编码，按列序号存放，非字符串列为null；只含本块的值，清空时一并清空
+     */
+    private final List<List<String>> dictionaries;
+    private final List<Map<String, Integer>> dictionaryCodes;
+
+    public ColumnChunk(ColumnType[] types, int capacity) {
+        this.types = types.clone();
+        this.rowIndexes = new int[capacity];
+        int n = types.length;
+        this.doubles = new double[n][];
+        this.longs = new long[n][];
+        this.codes = new int[n][];
+        this.nulls = new long[n][(capacity + 63) >>> 6];
+        this.dictionaries = new ArrayList<>(n);
+        this.dictionaryCodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            switch (types[i]) {
+                case DOUBLE:
+                    this.doubles[i] = new double[capacity];
+                    this.dictionaries.add(null);
+                    this.dictionaryCodes.add(null);
+                    break;
+                case LONG:
+                    this.longs[i] = new long[capacity];
+                    this.dictionaries.add(null);
+                    this.dictionaryCodes.add(null);
+                    break;
+                default:
+                    this.codes[i] = new int[capacity];
+                    this.dictionaries.add(new ArrayList<>());
+                    this.dictionaryCodes.add(new HashMap<>());
+            }
+        }
+    }
+
+    public int getSheetIndex() {
+        return this.sheetIndex;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean isFull() {
+        return this.size == this.rowIndexes.length;
+    }
+
+    /**
+     * 列数
+     */
+    public int getColumnCount() {
+        return this.types.length;
+    }
+
+    public ColumnType getType(int col) {
+        return this.types[col - 1];
+    }
+
+    /**
+     * 第i行的行号
+     * @param i 块内下标，从0开始
+     */
+    public int getRowIndex(int i) {
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size);
+        }
+        return this.rowIndexes[i];
+    }
+
+    /**
+     * DOUBLE列的数据，空单元格为0
+     */
+    public double[] getDoubles(int col) {
+        return this.column(this.doubles, col, ColumnType.DOUBLE);
+    }
+
+    /**
+     * LONG列的数据，空单元格为0
+     */
+    public long[] getLongs(int col) {
+        return this.column(this.longs, col, ColumnType.LONG);
+    }
+
+    /**
+     * STRING列的字典编码，空单元格为-1
+     */
+    public int[] getCodes(int col) {
+        return this.column(this.codes, col, ColumnType.STRING);
+    }
+
+    /**
+     * STRING列的字典，下标为编码；只含本块出现的值，各块分别编码，同一个字符串在不同块中的编码可能不同
+     */
+    public List<String> getDictionary(int col) {
+        this.column(this.codes, col, ColumnType.STRING);
+        return Collections.unmodifiableList(this.dictionaries.get(col - 1));
+    }
+
+    /**
+     * 第i行该列是否为空
+     * @param col 列号，从1开始
+     * @param i 块内下标，从0开始
+     */
+    public boolean isNull(int col, int i) {
+        return (this.nulls[col - 1][i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * 该列是否没有空值
+     */
+    public boolean hasNoNulls(int col) {
+        for (long word : this.nulls[col - 1]) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * STRING列第i行的字符串，空单元格为null
+     */
+    public String getString(int col, int i) {
+        int code = this.getCodes(col)[i];
+        return code < 0 ? null : this.dictionaries.get(col - 1).get(code);
+    }
+
+    private <A> A column(A[] columns, int col, ColumnType type) {
+        if (this.types[col - 1] != type) {
+            throw new IllegalArgumentException("第" + col + "列的类型为" + this.types[col - 1] + "，不是" + type);
+        }
+        return columns[col - 1];
+    }
+
+    /**
+     * 追加一行，之后按列设置该行的值，未设置的列为空
+     * @param rowIndex 行号
+     * @return 块内下标
+     */
+    public int addRow(int rowIndex) {
+        if (this.isFull()) {
+            throw new IllegalStateException("块已满：" + this.rowIndexes.length);
+        }
+        int i = this.size++;
+        this.rowIndexes[i] = rowIndex;
+        for (int c = 0; c < this.types.length; c++) {
+            this.nulls[c][i >>> 6] |= 1L << i;
+            if (this.codes[c] != null) {
+                this.codes[c][i] = -1;
+            } else if (this.doubles[c] != null) {
+                this.doubles[c][i] = 0;
+            } else {
+                this.longs[c][i] = 0;
+            }
+        }
+        return i;
+    }
+
+    public void setDouble(int col, int i, double value) {
+        this.doubles[col - 1][i] = value;
+        this.nulls[col - 1][i >>> 6] &= ~(1L << i);
+    }
+
+    public void setLong(int col, int i, long value) {
+        this.longs[col - 1][i] = value;
+        this.nulls[col - 1][i >>> 6] &= ~(1L << i);
+    }
+
+    public void setCode(int col, int i, int code) {
+        this.codes[col - 1][i] = code;
+        this.nulls[col - 1][i >>> 6] &= ~(1L << i);
+    }
+
+    /**
+     * 字符串在该列字典中的编码，没有时加入字典
+     */
+    public int encode(int col, String value) {
+        Integer code = this.dictionaryCodes.get(col - 1).get(value);
+        if (code == null) {
+            code = this.dictionaries.get(col - 1).size();
+            this.dictionaries.get(col - 1).add(value);
+            this.dictionaryCodes.get(col - 1).put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * 清空，开始新的一块，字典一并清空
+     * @param sheetIndex 第几个sheet页
+     */
+    public void reset(int sheetIndex) {
+        this.sheetIndex = sheetIndex;
+        this.size = 0;
+        for (long[] bitmap : this.nulls) {
+            Arrays.fill(bitmap, 0);
+        }
+        for (int i = 0; i < this.types.length; i++) {
+            if (this.dictionaries.get(i) != null) {
+                this.dictionaries.get(i).clear();
+                this.dictionaryCodes.get(i).clear();
+            }
+        }
+    }
+}
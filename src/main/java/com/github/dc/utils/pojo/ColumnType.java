@@ -0,0 +1,24 @@
+package com.github.dc.utils.pojo;
+
+/**
+ * <p>
+ *     列式读取时列的类型
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 21:00
+ */
+public enum ColumnType {
+    /**
+     * 浮点数，存为double[]；日期单元格为Excel日期序列号
+     */
+    DOUBLE,
+    /**
+     * 整数，存为long[]
+     */
+    LONG,
+    /**
+     * 字符串，字典编码：存为int[]编码，编码对应的字符串在该列的字典中，同一次执行的所有块共用字典
+     */
+    STRING
+}
@@ -0,0 +1,53 @@
+package com.github.dc.utils.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * <p>
+ *     比对两个Excel时的一行差异
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:59
+ */
+@Data
+public class DiffRow {
+    /**
+     * 差异类型
+     */
+    private DiffType type;
+    /**
+     * 关键列的值
+     */
+    private List<String> key;
+    /**
+     * 原文件中的sheet页序号（从1开始），新增时为0
+     */
+    private int oldSheetIndex;
+    /**
+     * 原文件中的行号（从1开始），新增时为0
+     */
+    private int oldRowIndex;
+    /**
+     * 原文件中的行数据，新增时为null
+     */
+    private List<String> oldRow;
+    /**
+     * 新文件中的sheet页序号（从1开始），删除时为0
+     */
+    private int newSheetIndex;
+    /**
+     * 新文件中的行号（从1开始），删除时为0
+     */
+    private int newRowIndex;
+    /**
+     * 新文件中的行数据，删除时为null
+     */
+    private List<String> newRow;
+    /**
+     * 有变化的列号（从1开始），只有变化时有值
+     */
+    private List<Integer> changedColumns;
+}
@@ -0,0 +1,38 @@
+package com.github.dc.utils.pojo;
+
+import lombok.Data;
+
+/**
+ * <p>
+ *     比对两个Excel的结果统计
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:59
+ */
+@Data
+public class DiffSummary {
+    /**
+     * 新增的行数
+     */
+    private long added;
+    /**
+     * 删除的行数
+     */
+    private long removed;
+    /**
+     * 有变化的行数
+     */
+    private long changed;
+    /**
+     * 没有变化的行数
+     */
+    private long unchanged;
+
+    /**
+     * 是否完全相同
+     */
+    public boolean isSame() {
+        return this.added == 0 && this.removed == 0 && this.changed == 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.dc.utils.pojo;
+
+/**
+ * <p>
+ *     比对两个Excel时行的差异类型
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:59
+ */
+public enum DiffType {
+    /**
+     * 新文件中有、原文件中没有
+     */
+    ADDED,
+    /**
+     * 原文件中有、新文件中没有
+     */
+    REMOVED,
+    /**
+     * 关键列相同，比对的列有变化
+     */
+    CHANGED
+}
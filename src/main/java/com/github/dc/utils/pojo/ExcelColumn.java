@@ -0,0 +1,34 @@
+package com.github.dc.utils.pojo;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>
+ *     Excel列与字段的绑定，用于SAXExcelParser.run(Class, Consumer)：按列标题或列号把单元格转换后写入字段。
+ *     支持的字段类型：String、int/long/double/float/short/byte/boolean及其包装类、BigDecimal、BigInteger、
+ *     LocalDateTime、LocalDate、java.util.Date、枚举（按name或toString匹配）。空单元格不写入字段
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 18:40
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+
+    /**
+     * 列标题，按起始行（beginRowNum，默认第1行）的标题匹配列号；与index都未设置时使用字段名
+     */
+    String value() default "";
+
+    /**
+     * 列号（从1开始），设置后忽略列标题
+     */
+    int index() default 0;
+
+    /**
+     * 日期字段：文本单元格的日期格式，如 "yyyy/MM/dd"，未设置时使用该列配置的日期格式（默认yyyy-MM-dd HH:mm:ss）；数值单元格按Excel日期序列号转换
+     */
+    String format() default "";
+}
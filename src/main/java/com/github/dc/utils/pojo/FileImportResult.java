@@ -0,0 +1,45 @@
+package com.github.dc.utils.pojo;
+
+import lombok.Data;
+
+import java.io.File;
+
+/**
+ * <p>
+ *     多文件导入中单个文件的处理结果
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:50
+ */
+@Data
+public class FileImportResult {
+    /**
+     * 文件
+     */
+    private File file;
+    /**
+     * 是否成功
+     */
+    private boolean success;
+    /**
+     * 处理的行数
+     */
+    private long rows;
+    /**
+     * 估算占用的内存（字节）
+     */
+    private long estimatedMemory;
+    /**
+     * 等待内存配额的耗时（纳秒）
+     */
+    private long waitNanos;
+    /**
+     * 解析和处理的耗时（纳秒），不含等待
+     */
+    private long nanos;
+    /**
+     * 失败原因，成功时为null
+     */
+    private Exception error;
+}
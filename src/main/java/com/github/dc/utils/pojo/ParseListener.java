@@ -0,0 +1,77 @@
+package com.github.dc.utils.pojo;
+
+/**
+ * <p>
+ *     Excel解析过程监听，用于显示进度、分析耗时。所有方法都有空的默认实现，按需覆盖。
+ *     注：并行解析sheet页时不同sheet页的事件在各自的解析线程中回调，实现需线程安全；回调应尽量轻量，不要阻塞。
+ *     xls按记录顺序读取，没有单独加载共享字符串表和样式表的阶段，不回调对应事件，sheet页的字节数均为-1
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 19:20
+ */
+public interface ParseListener {
+
+    /**
+     * 共享字符串表加载完成
+     * @param uniqueCount 字符串个数
+     * @param bytes 占用大小（字节）：内存映射时为映射的堆外字节数；否则为sharedStrings.xml解压后的大小，堆内存占用约为其数倍
+     * @param mapped 是否为内存映射的共享字符串表
+     * @param nanos 加载耗时（纳秒）
+     */
+    default void onSharedStringsLoaded(int uniqueCount, long bytes, boolean mapped, long nanos) {
+    }
+
+    /**
+     * 样式表加载完成（只在开启自动检测日期时加载）
+     * @param nanos 加载耗时（纳秒）
+     */
+    default void onStylesLoaded(long nanos) {
+    }
+
+    /**
+     * 开始解析sheet页
+     * @param sheetIndex 第几个sheet页，从1开始
+     * @param sheetName sheet页名称
+     * @param totalBytes sheet页XML解压后的大小（字节），未知时为-1
+     */
+    default void onSheetStart(int sheetIndex, String sheetName, long totalBytes) {
+    }
+
+    /**
+     * 解析进度，每交付指定行数回调一次
+     * @param sheetIndex 第几个sheet页，从1开始
+     * @param rows 该sheet页已交付的行数
+     * @param bytesRead 该sheet页XML已读取的字节数
+     * @param totalBytes sheet页XML解压后的大小（字节），未知时为-1
+     */
+    default void onProgress(int sheetIndex, long rows, long bytesRead, long totalBytes) {
+    }
+
+    /**
+     * 稀疏模式下跳过的空行范围，在解析线程中、该范围之后的一行交付之前回调
+     * @param sheetIndex 第几个sheet页，从1开始
+     * @param firstRowNum 第一个空行的行号
+     * @param lastRowNum 最后一个空行的行号（包含）
+     */
+    default void onRowGap(int sheetIndex, int firstRowNum, int lastRowNum) {
+    }
+
+    /**
+     * sheet页解析结束（包括读到结束行提前结束）
+     * @param sheetIndex 第几个sheet页，从1开始
+     * @param rows 该sheet页交付的行数
+     * @param bytesRead 该sheet页XML读取的字节数
+     * @param decodeNanos 解析、解码耗时（纳秒），即总耗时减去rowHandler耗时
+     * @param handlerNanos rowHandler耗时（纳秒）；流水线或并行有序交付时为交给缓冲的耗时（含等待）
+     */
+    default void onSheetEnd(int sheetIndex, long rows, long bytesRead, long decodeNanos, long handlerNanos) {
+    }
+
+    /**
+     * 全部解析结束
+     * @param nanos 总耗时（纳秒），含打开文件、加载共享字符串表和样式表
+     */
+    default void onFinish(long nanos) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.dc.utils.pojo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     一批行数据，均来自同一个sheet页，按行号顺序存放。由解析器填充并在处理完后清空复用
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 15:10
+ */
+public class RowBatch {
+    /**
+     * 第几个sheet页，从1开始
+     */
+    private int sheetIndex;
+    /**
+     * 各行行号
+     */
+    private final int[] rowIndexes;
+    /**
+     * 各行数据
+     */
+    private final List<List<String>> rows;
+    /**
+     * 是否是该sheet页的最后一批
+     */
+    private boolean lastOfSheet;
+
+    public RowBatch(int capacity) {
+        this.rowIndexes = new int[capacity];
+        this.rows = new ArrayList<>(capacity);
+    }
+
+    public int getSheetIndex() {
+        return this.sheetIndex;
+    }
+
+    public int size() {
+        return this.rows.size();
+    }
+
+    public boolean isEmpty() {
+        return this.rows.isEmpty();
+    }
+
+    public boolean isFull() {
+        return this.rows.size() == this.rowIndexes.length;
+    }
+
+    /**
+     * 第i行的行号
+     * @param i 批内下标，从0开始
+     */
+    public int getRowIndex(int i) {
+        if (i < 0 || i >= this.rows.size()) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.rows.size());
+        }
+        return this.rowIndexes[i];
+    }
+
+    /**
+     * 第i行的数据
+     * @param i 批内下标，从0开始
+     */
+    public List<String> getRow(int i) {
+        return this.rows.get(i);
+    }
+
+    /**
+     * 本批所有行数据（只读）
+     */
+    public List<List<String>> getRows() {
+        return Collections.unmodifiableList(this.rows);
+    }
+
+    public boolean isLastOfSheet() {
+        return this.lastOfSheet;
+    }
+
+    public void setLastOfSheet(boolean lastOfSheet) {
+        this.lastOfSheet = lastOfSheet;
+    }
+
+    /**
+     * 追加一行
+     * @param rowIndex 行号
+     * @param row 行数据
+     */
+    public void add(int rowIndex, List<String> row) {
+        if (this.isFull()) {
+            throw new IllegalStateException("批次已满：" + this.rowIndexes.length);
+        }
+        this.rowIndexes[this.rows.size()] = rowIndex;
+        this.rows.add(row);
+    }
+
+    /**
+     * 清空，开始新的一批
+     * @param sheetIndex 第几个sheet页
+     */
+    public void reset(int sheetIndex) {
+        this.sheetIndex = sheetIndex;
+        this.rows.clear();
+        this.lastOfSheet = false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.dc.utils.pojo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * <p>
+ *     Excel一行数据的只读视图，按列号（从1开始）取值。
+ *     单元格保存的是原始文本和单元格类型，只有调用取值方法时才解码，数值列不会先转成字符串再解析。
+ *     注：解析时同一个视图对象被每一行复用，只在回调内有效，需要保留时调用{@link #copy()}或取出需要的值
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 13:40
+ */
+public interface RowView {
+
+    /**
+     * 第几个sheet页，从1开始
+     */
+    int getSheetIndex();
+
+    /**
+     * 行号，从1开始
+     */
+    int getRowIndex();
+
+    /**
+     * 列数，与List&lt;String&gt;模式下该行的长度一致（按dimension补齐）
+     */
+    int size();
+
+    /**
+     * 单元格是否为空（没有单元格、没有值或值为空字符串）
+     * @param col 列号（从1开始）
+     */
+    boolean isBlank(int col);
+
+    /**
+     * 单元格文本，与List&lt;String&gt;模式下的值一致（共享字符串已取值、日期列已格式化），空单元格为""
+     * @param col 列号（从1开始）
+     */
+    String getString(int col);
+
+    /**
+     * 单元格数值，空单元格为0
+     * @param col 列号（从1开始）
+     * @throws NumberFormatException 不是数值
+     */
+    double getDouble(int col);
+
+    /**
+     * 单元格整数值，空单元格为0
+     * @param col 列号（从1开始）
+     * @throws NumberFormatException 不是数值
+     * @throws ArithmeticException 有小数部分或超出long范围
+     */
+    long getLong(int col);
+
+    /**
+     * 单元格精确数值，空单元格为null
+     * @param col 列号（从1开始）
+     * @throws NumberFormatException 不是数值
+     */
+    BigDecimal getBigDecimal(int col);
+
+    /**
+     * 单元格日期时间：数值按Excel日期序列号转换，文本按该列配置的日期格式（未配置时为yyyy-MM-dd HH:mm:ss）解析，空单元格为null
+     * @param col 列号（从1开始）
+     * @throws java.time.format.DateTimeParseException 文本无法按日期格式解析
+     */
+    LocalDateTime getLocalDateTime(int col);
+
+    /**
+     * 单元格日期时间：数值按Excel日期序列号转换，文本按指定的日期格式解析（只有日期部分时为当天0点），空单元格为null
+     * @param col 列号（从1开始）
+     * @param textFormatter 文本的日期格式，为null时同{@link #getLocalDateTime(int)}
+     * @throws java.time.format.DateTimeParseException 文本无法按日期格式解析
+     */
+    LocalDateTime getLocalDateTime(int col, DateTimeFormatter textFormatter);
+
+    /**
+     * 转为List模式的行数据，与run(ThreeConsumer)回调的行数据一致
+     */
+    List<String> toList();
+
+    /**
+     * 复制出一个不再被复用的视图，共享字符串会先取出值，可以在解析结束后继续使用
+     */
+    RowView copy();
+}
@@ -0,0 +1,43 @@
+package com.github.dc.utils.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>
+ *     校验错误：某个单元格不满足校验规则
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 23:10
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationError {
+    /**
+     * 第几个sheet页，从1开始
+     */
+    private int sheetIndex;
+    /**
+     * 行号，从1开始
+     */
+    private int rowIndex;
+    /**
+     * 列号（从1开始），设置了列投影时为投影后的列号
+     */
+    private int column;
+    /**
+     * 规则：required、regex、range、date、unique
+     */
+    private String rule;
+    /**
+     * 单元格文本，过长时截断
+     */
+    private String value;
+    /**
+     * 错误信息
+     */
+    private String message;
+}
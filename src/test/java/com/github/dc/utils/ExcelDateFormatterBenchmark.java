@@ -0,0 +1,76 @@
+package com.github.dc.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * <p>
+ *     日期单元格格式化基准：对比每个单元格都编译格式、从基准点做日期运算（原实现）与 ExcelDateFormatter（格式只编译一次，整数序列号缓存）的单格耗时。
+ *     数据为交易流水常见的分布：日期列只有约3650个不同的值，时间列的值基本不重复
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 17:40
+ */
+@Slf4j
+public class ExcelDateFormatterBenchmark {
+
+    private static final int CELLS = 5_000_000;
+    private static final String FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final LocalDateTime EXCEL_EPOCH = LocalDateTime.of(1899, 12, 30, 0, 0, 0);
+
+    public static void main(String[] args) {
+        Random random = new Random(20261018);
+        double[] dates = new double[CELLS];
+        double[] dateTimes = new double[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            dates[i] = 40000 + random.nextInt(3650);
+            dateTimes[i] = 40000 + random.nextInt(3650) + random.nextInt(86400) / 86400.0;
+        }
+        // 预热一次，再正式统计
+        for (int round = 0; round < 2; round++) {
+            log.info("日期列：原实现每格{}纳秒，ExcelDateFormatter每格{}纳秒", measureOld(dates), measureNew(dates));
+            log.info("日期时间列：原实现每格{}纳秒，ExcelDateFormatter每格{}纳秒", measureOld(dateTimes), measureNew(dateTimes));
+        }
+    }
+
+    private static long measureOld(double[] values) {
+        long length = 0;
+        long start = System.nanoTime();
+        for (double value : values) {
+            length += formatOld(value).length();
+        }
+        return perCell(start, values.length, length);
+    }
+
+    private static long measureNew(double[] values) {
+        ExcelDateFormatter formatter = new ExcelDateFormatter(FORMAT);
+        long length = 0;
+        long start = System.nanoTime();
+        for (double value : values) {
+            length += formatter.format(value).length();
+        }
+        return perCell(start, values.length, length);
+    }
+
+    /**
+     * 原实现：每个单元格都编译格式
+     */
+    private static String formatOld(double excelDate) {
+        long wholeDays = (long) excelDate;
+        long millisecondsInDay = Math.round((excelDate - wholeDays) * 24 * 60 * 60 * 1000);
+        return EXCEL_EPOCH.plusDays(wholeDays).plusNanos(millisecondsInDay * 1_000_000).format(DateTimeFormatter.ofPattern(FORMAT));
+    }
+
+    private static long perCell(long start, int cells, long length) {
+        long nanos = System.nanoTime() - start;
+        // 使用结果，避免被JIT优化掉
+        if (length == 0) {
+            log.info("无结果");
+        }
+        return nanos / cells;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.dc.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     SAXExcelParser 解析性能基准：生成 1,000,000行 × 30列 的测试文件（数值、共享字符串、日期各占1/3），
+ *     统计解析耗时、每秒行数、GC次数/耗时、解析线程分配的字节数。
+ *     运行前后对比时使用同一个测试文件，建议 -Xmx2g -XX:+UseG1GC
+ * </p>
+ *
+ * @author wangpeiyuan
+ * @date 2026/10/18 11:05
+ */
+@Slf4j
+public class SAXParserExcelBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int COLUMNS = 30;
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(args.length > 0 ? args[0] : "F:/benchmark-1m-30.xlsx");
+        if (!file.exists()) {
+            generate(file);
+        }
+        // 预热一次，再正式统计
+        parse(file);
+        parse(file);
+    }
+
+    /**
+     * 生成测试文件
+     */
+    public static void generate(File file) throws Exception {
+        long start = System.currentTimeMillis();
+        // 使用共享字符串表，与Excel保存的文件一致
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, true, true);
+             FileOutputStream fos = new FileOutputStream(file)) {
+            SXSSFSheet sheet = workbook.createSheet("benchmark");
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < COLUMNS; c++) {
+                header.createCell(c).setCellValue("列" + (c + 1));
+            }
+            for (int r = 1; r <= ROWS; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < COLUMNS; c++) {
+                    switch (c % 3) {
+                        case 0:
+                            row.createCell(c).setCellValue(r * 1.25 + c);
+                            break;
+                        case 1:
+                            row.createCell(c).setCellValue("状态" + (r + c) % 50);
+                            break;
+                        default:
+                            Cell cell = row.createCell(c);
+                            cell.setCellValue(40000 + (r % 3650) + 0.5);
+                            cell.setCellStyle(dateStyle);
+                    }
+                }
+            }
+            workbook.write(fos);
+            workbook.dispose();
+        }
+        log.info("生成测试文件【{}】耗时{}毫秒", file.getAbsolutePath(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 解析并统计
+     */
+    public static void parse(File file) throws Exception {
+        AtomicLong rows = new AtomicLong();
+        AtomicLong cells = new AtomicLong();
+        long gcCount = gcCount();
+        long gcTime = gcTime();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        SAXExcelParser.start()
+                .file(file)
+                .run((sheetIndex, rowIndex, row) -> {
+                    rows.incrementAndGet();
+                    cells.addAndGet(row.size());
+                });
+        long nanos = System.nanoTime() - start;
+        BigDecimal seconds = BigDecimal.valueOf(nanos).divide(BigDecimal.valueOf(1_000_000_000L), 3, RoundingMode.HALF_UP);
+        log.info("解析{}行/{}个单元格，耗时{}秒，每秒{}行，GC{}次共{}毫秒，解析线程分配{}",
+                rows.get(), cells.get(), seconds,
+                BigDecimal.valueOf(rows.get() * 1_000_000_000L).divide(BigDecimal.valueOf(nanos), 0, RoundingMode.HALF_UP),
+                gcCount() - gcCount, gcTime() - gcTime,
+                ByteFormatter.formatBytes(allocatedBytes() - allocated));
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * 当前线程已分配的字节数（HotSpot）
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -1,8 +1,23 @@
 package com.github.dc.utils;
 
+import com.github.dc.utils.pojo.ColumnType;
+import com.github.dc.utils.pojo.DiffSummary;
+import com.github.dc.utils.pojo.ExcelColumn;
+import com.github.dc.utils.pojo.FileImportResult;
+import com.github.dc.utils.pojo.ParseListener;
+import com.github.dc.utils.pojo.RowView;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -37,6 +52,445 @@ public class SAXParserExcelTest {
         }
     }
 
+    /**
+     * 测试sheet页并行解析
+     * 4个线程并行解析各sheet页，有序交付：sheet页内按行序、sheet页之间按sheet页序回调
+     */
+    public static void testParallelSheets() {
+        File file = new File("F:/test-multi-sheet-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .parallelSheets(4)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试流水线模式
+     * 解析线程只负责解码，4个消费线程执行耗时的行处理，缓冲满2048行时解析线程等待
+     */
+    public static void testPipeline() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .pipeline(4, 2048)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        // 模拟查库、校验等耗时逻辑
+                        ParallelExecutorTest.otherBusiness(row.toString());
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试RowView模式
+     * 数值列直接取double/BigDecimal，不再先转成字符串；视图每行复用，只在回调内有效
+     */
+    public static void testRowView() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .runView(row -> {
+                        if (row.isBlank(1)) {
+                            return;
+                        }
+                        log.info("第{}个sheet页第{}行, 姓名：{}，年龄：{}，分数：{}", row.getSheetIndex(), row.getRowIndex(),
+                                row.getString(1), row.getLong(2), row.getBigDecimal(4));
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试按批交付
+     * 每1000行一批，sheet页结束时交付剩余行；开启流水线后由1个线程写库，解析同时进行
+     */
+    public static void testBatched() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .pipeline(1, 2)
+                    .runBatched(1000, batch -> {
+                        log.info("第{}个sheet页第{}~{}行，共{}行，是否最后一批：{}", batch.getSheetIndex(),
+                                batch.getRowIndex(0), batch.getRowIndex(batch.size() - 1), batch.size(), batch.isLastOfSheet());
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试拉取式读取：只预览前1000行，limit结束后不再继续解析
+     */
+    public static void testStream() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try (Stream<RowView> rows = SAXExcelParser.start().file(file).stream()) {
+            List<List<String>> preview = rows.limit(1000).map(RowView::toList).collect(Collectors.toList());
+            log.info("预览{}行，第1行：{}", preview.size(), preview.isEmpty() ? null : preview.get(0));
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试只读取第3个sheet页的第2~101行，读到第101行后停止解析，其余sheet页不解压
+     */
+    public static void testSheetWindow() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .sheets(3)
+                    .beginRowNum(1)
+                    .endRowNum(101)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试列投影：按第1行的标题只读取3列，行数据按参数顺序排列
+     */
+    public static void testColumns() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .columns("姓名", "身份证号", "金额")
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 姓名：{}，身份证号：{}，金额：{}", sheetIndex, rowIndex, row.get(0), row.get(1), row.get(2));
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试读取内存数据：模拟HTTP上传的输入流，不写临时文件
+     */
+    public static void testSource() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try (InputStream upload = new FileInputStream(file)) {
+            SAXExcelParser.start()
+                    .source(upload)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试绑定到对象：按标题取姓名、金额、日期，第1列为序号
+     */
+    public static void testBindClass() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .run(ImportRow.class, row -> log.info("行数据：{}", row));
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    @Data
+    public static class ImportRow {
+        @ExcelColumn(index = 1)
+        private Integer seq;
+        @ExcelColumn("姓名")
+        private String name;
+        @ExcelColumn("金额")
+        private BigDecimal amount;
+        @ExcelColumn(value = "日期", format = "yyyy/MM/dd")
+        private LocalDate date;
+    }
+
+    /**
+     * 测试解析进度和各阶段耗时
+     */
+    public static void testListener() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .listener(new ParseListener() {
+                        @Override
+                        public void onProgress(int sheetIndex, long rows, long bytesRead, long totalBytes) {
+                            log.info("第{}个sheet页已处理{}行，进度{}%", sheetIndex, rows, totalBytes > 0 ? bytesRead * 100 / totalBytes : "-");
+                        }
+
+                        @Override
+                        public void onSheetEnd(int sheetIndex, long rows, long bytesRead, long decodeNanos, long handlerNanos) {
+                            log.info("第{}个sheet页共{}行，解析耗时{}毫秒，业务处理耗时{}毫秒", sheetIndex, rows, decodeNanos / 1_000_000, handlerNanos / 1_000_000);
+                        }
+                    }, 50000)
+                    .run((sheetIndex, rowIndex, row) -> {
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试读取xls，与xlsx使用相同的方式，按文件内容自动识别格式
+     */
+    public static void testXls() {
+        File file = new File("F:/test-sax-excel.xls");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .beginRowNum(2)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试稀疏模式：dimension很大、底部有零散格式的sheet页，空行只回调一次范围，行数据不补齐列数
+     */
+    public static void testSparse() {
+        File file = new File("F:/test-sparse-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .sparse()
+                    .listener(new ParseListener() {
+                        @Override
+                        public void onRowGap(int sheetIndex, int firstRowNum, int lastRowNum) {
+                            log.info("第{}个sheet页第{}~{}行为空行", sheetIndex, firstRowNum, lastRowNum);
+                        }
+                    })
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}个sheet页第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试断点续传：每1000行（一批）提交一次并保存断点，失败后再次执行从断点之后继续
+     */
+    public static void testCheckpoint() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .checkpoint(new File("F:/test-sax-write-excel.checkpoint"), 1000)
+                    .resume()
+                    .runBatched(1000, batch -> {
+                        // 写库并提交，返回后保存断点
+                        log.info("第{}个sheet页第{}~{}行已提交", batch.getSheetIndex(), batch.getRowIndex(0), batch.getRowIndex(batch.size() - 1));
+                    });
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试列式读取：按姓名汇总金额，只读取2列，金额为double[]，姓名为字典编码
+     */
+    public static void testColumnar() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        double[] total = new double[1];
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .columns("姓名", "金额")
+                    .runColumnar(4096, chunk -> {
+                        double[] amounts = chunk.getDoubles(2);
+                        for (int i = 0; i < chunk.size(); i++) {
+                            if (!chunk.isNull(2, i)) {
+                                total[0] += amounts[i];
+                            }
+                        }
+                    }, ColumnType.STRING, ColumnType.DOUBLE);
+            log.info("金额合计：{}", total[0]);
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试共享字符串驻留，行数据保留在内存里做跨行校验
+     */
+    public static void testInternStrings() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        List<List<String>> rows = new ArrayList<>();
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .internStrings(10000)
+                    .run((sheetIndex, rowIndex, row) -> rows.add(row));
+            log.info("共读取{}行", rows.size());
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试按行索引分页读取，建立一次索引后翻到任意页都只解析该页附近的行
+     */
+    public static void testPager() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try (ExcelRowPager pager = SAXExcelParser.start()
+                .file(file)
+                .mappedSharedStrings()
+                .pager(1000)) {
+            log.info("共{}页", pager.getPageCount(100));
+            List<List<String>> rows = pager.page(5000, 100);
+            log.info("第5000页：{}", rows);
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试转换为二进制行缓存，之后多次读取不再解析Excel
+     */
+    public static void testRowCache() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        File cacheFile = new File("F:/test-sax-write-excel.rows");
+        try {
+            SAXExcelParser.start()
+                    .file(file)
+                    .autoDetectDate()
+                    .writeCache(cacheFile);
+            try (ExcelRowCache cache = ExcelRowCache.open(cacheFile)) {
+                cache.run((sheetIndex, rowIndex, row) -> {
+                    log.info("第{}个sheet页，第{}行, 行数据：{}", sheetIndex, rowIndex, row);
+                });
+            }
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试解析时校验，错误超过内存容量的部分写入临时文件，不保存每行的处理结果
+     */
+    public static void testValidate() {
+        File file = new File("F:/test-sax-write-excel.xlsx");
+        try (RowValidator validator = RowValidator.start()
+                .required(1, 2)
+                .regex(2, "[\\u4e00-\\u9fa5]{2,4}")
+                .range(3, 0, 1000000)
+                .date(4, "yyyy-MM-dd")
+                .unique(1)
+                .errorSink(new ValidationErrorSink(1000, null))) {
+            SAXExcelParser.start()
+                    .file(file)
+                    .parallelSheets(4)
+                    .validate(validator)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        // 写库等处理
+                    });
+            log.info("校验错误{}个", validator.getErrorCount());
+            validator.getErrorSink().forEach(error -> log.info("第{}个sheet页第{}行第{}列【{}】：{}", error.getSheetIndex(), error.getRowIndex(), error.getColumn(), error.getValue(), error.getMessage()));
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试多文件并发导入，限制同时处理的文件数和估算内存
+     */
+    public static void testBatchImport() {
+        File dir = new File("F:/partner");
+        try {
+            List<FileImportResult> results = ExcelBatchImporter.start()
+                    .directory(dir)
+                    .threads(8)
+                    .memoryBudget(2L << 30)
+                    .parser(parser -> parser.beginRowNum(1))
+                    .run((file, sheetIndex, rowIndex, row) -> {
+                        // 写库等处理，不同文件在不同线程中并发回调
+                    });
+            for (FileImportResult result : results) {
+                log.info("【{}】成功：{}，{}行", result.getFile().getName(), result.isSuccess(), result.getRows());
+            }
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试外部排序去重：按第3列数值降序、第1列升序，关键列相同的只保留第一行，超过内存预算的分段写入临时文件
+     */
+    public static void testSort() {
+        File file = new File("F:/test.xlsx");
+        try {
+            long rows = ExcelSorter.start()
+                    .from(SAXExcelParser.start().file(file).beginRowNum(1))
+                    .key(3, true, true)
+                    .keys(1)
+                    .distinct()
+                    .memoryBudget(64L << 20)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("原第{}行, 行数据：{}", rowIndex, row);
+                    });
+            log.info("排序去重后{}行", rows);
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试按关键列比对两个Excel，找出新增、删除和有变化的行
+     */
+    public static void testDiff() {
+        File yesterday = new File("F:/test-1017.xlsx");
+        File today = new File("F:/test-1018.xlsx");
+        try {
+            DiffSummary summary = ExcelDiff.start()
+                    .from(SAXExcelParser.start().file(yesterday).beginRowNum(1))
+                    .to(SAXExcelParser.start().file(today).beginRowNum(1))
+                    .keys(1)
+                    .memoryBudget(256L << 20)
+                    .run(diff -> {
+                        log.info("{} 关键列：{}，变化的列：{}", diff.getType(), diff.getKey(), diff.getChangedColumns());
+                    });
+            log.info("新增{}行，删除{}行，变化{}行", summary.getAdded(), summary.getRemoved(), summary.getChanged());
+        } catch (Exception e) {
+            log.error("excel读取异常", e);
+        }
+    }
+
+    /**
+     * 测试读取CSV，大文件分块并行解析
+     */
+    public static void testCsv() {
+        File file = new File("F:/test.csv");
+        try {
+            CsvParser.start()
+                    .file(file)
+                    .parallel(4)
+                    .run((sheetIndex, rowIndex, row) -> {
+                        log.info("第{}行, 行数据：{}", rowIndex, row);
+                    });
+        } catch (Exception e) {
+            log.error("csv读取异常", e);
+        }
+    }
+
     /**
      * 测试日期列格式化
      * 假设 Excel 第1列是日期时间，第3列是日期